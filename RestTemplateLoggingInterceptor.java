@@ -1,4 +1,7 @@
 import lombok.extern.slf4j.Slf4j;
+import com.chawki.webclient.logs.webclient_logs.config.WebClientLoggingConfiguration;
+import com.chawki.webclient.logs.webclient_logs.logging.HeaderMaskingPolicy;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpRequest;
 import org.springframework.http.client.ClientHttpRequestExecution;
 import org.springframework.http.client.ClientHttpRequestInterceptor;
@@ -11,6 +14,14 @@ import java.nio.charset.StandardCharsets;
 @Slf4j
 public class RestTemplateLoggingInterceptor implements ClientHttpRequestInterceptor {
 
+    // Même configuration que le WebClientLoggingFilter : les en-têtes masqués
+    // (webclient.logging.masked-headers / masked-header-patterns) sont partagés
+    private final WebClientLoggingConfiguration loggingConfig;
+
+    public RestTemplateLoggingInterceptor(WebClientLoggingConfiguration loggingConfig) {
+        this.loggingConfig = loggingConfig;
+    }
+
     @Override
     public ClientHttpResponse intercept(HttpRequest request, byte[] body, ClientHttpRequestExecution execution) throws IOException {
         // On ne loggue que si TRACE est activé pour garder la cohérence avec le WebClient
@@ -33,14 +44,31 @@ public class RestTemplateLoggingInterceptor implements ClientHttpRequestIntercep
     }
 
     private void logExchange(HttpRequest req, String reqBody, ClientHttpResponse res, String resBody) throws IOException {
+        // Lue à chaque échange pour suivre les mises à jour à chaud ; null si le masquage est désactivé
+        HeaderMaskingPolicy maskingPolicy = loggingConfig.getSettings().activeMaskingPolicy();
         StringBuilder sb = new StringBuilder();
         sb.append("\n--- RESTTEMPLATE EXCHANGE ---");
         sb.append("\nURL         : ").append(req.getMethod()).append(" ").append(req.getURI());
+        appendHeaders(sb, "REQ HEADERS : ", req.getHeaders(), maskingPolicy);
         sb.append("\nREQ BODY    : ").append(reqBody.isEmpty() ? "[EMPTY]" : reqBody);
         sb.append("\nRES STATUS  : ").append(res.getStatusCode());
+        appendHeaders(sb, "RES HEADERS : ", res.getHeaders(), maskingPolicy);
         sb.append("\nRES BODY    : ").append(resBody.isEmpty() ? "[EMPTY]" : resBody);
         sb.append("\n-----------------------------");
         
         log.trace(sb.toString());
     }
+
+    private void appendHeaders(StringBuilder sb, String title, HttpHeaders headers, HeaderMaskingPolicy maskingPolicy) {
+        if (headers == null) {
+            return;
+        }
+        sb.append("\n").append(title);
+        headers.forEach((name, values) -> {
+            boolean masked = maskingPolicy != null && maskingPolicy.isSensitive(name);
+            for (String value : values) {
+                sb.append("\n  ").append(name).append(": ").append(masked ? HeaderMaskingPolicy.MASKED : value);
+            }
+        });
+    }
 }
@@ -6,6 +6,7 @@ import org.springframework.http.HttpRequest;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.client.ClientHttpRequestExecution;
 import org.springframework.http.client.ClientHttpResponse;
+import com.chawki.webclient.logs.webclient_logs.config.WebClientLoggingConfiguration;
 
 import java.io.ByteArrayInputStream;
 import java.io.IOException;
@@ -25,7 +26,7 @@ class RestTemplateLoggingInterceptorTest {
 
     @BeforeEach
     void setUp() {
-        interceptor = new RestTemplateLoggingInterceptor();
+        interceptor = new RestTemplateLoggingInterceptor(new WebClientLoggingConfiguration());
         request = mock(HttpRequest.class);
         execution = mock(ClientHttpRequestExecution.class);
         response = mock(ClientHttpResponse.class);
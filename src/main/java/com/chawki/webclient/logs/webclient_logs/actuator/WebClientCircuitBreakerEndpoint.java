@@ -0,0 +1,92 @@
+package com.chawki.webclient.logs.webclient_logs.actuator;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.actuate.endpoint.annotation.Endpoint;
+import org.springframework.boot.actuate.endpoint.annotation.ReadOperation;
+import org.springframework.boot.actuate.endpoint.annotation.Selector;
+import org.springframework.boot.actuate.endpoint.annotation.WriteOperation;
+import org.springframework.stereotype.Component;
+
+import com.chawki.webclient.logs.webclient_logs.client.Bulkhead;
+import com.chawki.webclient.logs.webclient_logs.client.CircuitBreaker;
+import com.chawki.webclient.logs.webclient_logs.client.CircuitBreakerFilter;
+import com.chawki.webclient.logs.webclient_logs.client.HostCooldownRegistry;
+
+import java.time.LocalDateTime;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.TreeMap;
+
+@Component
+@Endpoint(id = "webclient-circuits")
+public class WebClientCircuitBreakerEndpoint {
+
+    private static final Logger log = LoggerFactory.getLogger(WebClientCircuitBreakerEndpoint.class);
+
+    private final ObjectProvider<CircuitBreakerFilter> circuitBreakerFilter;
+    private final HostCooldownRegistry cooldownRegistry;
+
+    @Autowired
+    public WebClientCircuitBreakerEndpoint(ObjectProvider<CircuitBreakerFilter> circuitBreakerFilter,
+                                           HostCooldownRegistry cooldownRegistry) {
+        this.circuitBreakerFilter = circuitBreakerFilter;
+        this.cooldownRegistry = cooldownRegistry;
+    }
+
+    @ReadOperation
+    public Map<String, Object> getCircuits() {
+        Map<String, Object> response = new HashMap<>();
+        response.put("timestamp", LocalDateTime.now());
+        // Hosts paced after a 429, with the instant they may be called again
+        response.put("cooldowns", cooldownRegistry.getCooldowns());
+        CircuitBreakerFilter filter = circuitBreakerFilter.getIfAvailable();
+        if (filter == null) {
+            response.put("status", "disabled");
+            return response;
+        }
+
+        // Hosts show up once they have been called
+        Map<String, Object> hosts = new TreeMap<>();
+        filter.getCircuitBreakers().forEach((host, circuitBreaker) ->
+                hosts.put(host, createHostMap(circuitBreaker, filter.getBulkheads().get(host))));
+        response.put("status", "active");
+        response.put("hosts", hosts);
+        return response;
+    }
+
+    @WriteOperation
+    public Map<String, Object> resetCircuit(@Selector String host) {
+        Map<String, Object> response = new HashMap<>();
+        response.put("timestamp", LocalDateTime.now());
+        CircuitBreakerFilter filter = circuitBreakerFilter.getIfAvailable();
+        CircuitBreaker circuitBreaker = filter != null ? filter.getCircuitBreakers().get(host) : null;
+        if (circuitBreaker == null) {
+            response.put("status", "not-found");
+            return response;
+        }
+
+        CircuitBreaker.State before = circuitBreaker.getState();
+        circuitBreaker.reset();
+        log.info("Circuit breaker of host {} reset via actuator endpoint (was {})", host, before);
+        response.put("status", "reset");
+        response.put("host", host);
+        response.put("previousState", before);
+        return response;
+    }
+
+    private Map<String, Object> createHostMap(CircuitBreaker circuitBreaker, Bulkhead bulkhead) {
+        Map<String, Object> map = new HashMap<>();
+        map.put("state", circuitBreaker.getState());
+        map.put("failureRate", circuitBreaker.getFailureRate());
+        map.put("calls", circuitBreaker.getCallCount());
+        if (bulkhead != null) {
+            map.put("inFlight", bulkhead.getInUse());
+            map.put("maxConcurrent", bulkhead.getMaxConcurrent());
+            map.put("queued", bulkhead.getQueued());
+        }
+        return map;
+    }
+}
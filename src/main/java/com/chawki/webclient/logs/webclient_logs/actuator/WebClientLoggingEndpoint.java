@@ -4,15 +4,23 @@ package com.chawki.webclient.logs.webclient_logs.actuator;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.actuate.endpoint.annotation.DeleteOperation;
 import org.springframework.boot.actuate.endpoint.annotation.Endpoint;
 import org.springframework.boot.actuate.endpoint.annotation.ReadOperation;
+import org.springframework.boot.actuate.endpoint.annotation.Selector;
 import org.springframework.boot.actuate.endpoint.annotation.WriteOperation;
+import org.springframework.lang.Nullable;
 import org.springframework.stereotype.Component;
 
+import com.chawki.webclient.logs.webclient_logs.config.LoggingSettings;
+import com.chawki.webclient.logs.webclient_logs.config.RouteLoggingPolicy;
 import com.chawki.webclient.logs.webclient_logs.config.WebClientLoggingConfiguration;
+import com.chawki.webclient.logs.webclient_logs.logging.SamplingMode;
 
 import java.time.LocalDateTime;
+import java.util.ArrayList;
 import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
 
 @Component
@@ -33,7 +41,7 @@ public class WebClientLoggingEndpoint {
         Map<String, Object> response = new HashMap<>();
         response.put("timestamp", LocalDateTime.now());
         response.put("status", "active");
-        response.put("configuration", createConfigurationMap());
+        response.put("configuration", createConfigurationMap(loggingConfig.getSettings()));
         
         log.info("WebClient logging configuration retrieved via actuator endpoint");
         return response;
@@ -45,52 +53,80 @@ public class WebClientLoggingEndpoint {
                                                           Boolean includeBody, 
                                                           Integer maxBodySize,
                                                           Boolean includeParameters,
-                                                          Boolean maskSensitiveData) {
+                                                          Boolean maskSensitiveData,
+                                                          @Nullable SamplingMode samplingMode,
+                                                          @Nullable Double sampleRate,
+                                                          @Nullable Integer rateLimitPerSecond,
+                                                          @Nullable Boolean alwaysLogErrorsAndSlow,
+                                                          @Nullable Long slowThresholdMs,
+                                                          @Nullable Boolean wiretap,
+                                                          @Nullable Integer wiretapMaxBytes) {
         
+        // All provided values are applied in one atomic swap of the settings snapshot
+        LoggingSettings before = loggingConfig.getSettings();
+        LoggingSettings after = loggingConfig.update(builder -> {
+            if (enabled != null) {
+                builder.enabled(enabled);
+            }
+            if (includeHeaders != null) {
+                builder.includeHeaders(includeHeaders);
+            }
+            if (includeBody != null) {
+                builder.includeBody(includeBody);
+            }
+            if (maxBodySize != null) {
+                builder.maxBodySize(maxBodySize);
+            }
+            if (includeParameters != null) {
+                builder.includeParameters(includeParameters);
+            }
+            if (maskSensitiveData != null) {
+                builder.maskSensitiveData(maskSensitiveData);
+            }
+            if (samplingMode != null) {
+                builder.samplingMode(samplingMode);
+            }
+            if (sampleRate != null) {
+                builder.sampleRate(sampleRate);
+            }
+            if (rateLimitPerSecond != null) {
+                builder.rateLimitPerSecond(rateLimitPerSecond);
+            }
+            if (alwaysLogErrorsAndSlow != null) {
+                builder.alwaysLogErrorsAndSlow(alwaysLogErrorsAndSlow);
+            }
+            if (slowThresholdMs != null) {
+                builder.slowThresholdMs(slowThresholdMs);
+            }
+            if (wiretap != null) {
+                builder.wiretap(wiretap);
+            }
+            if (wiretapMaxBytes != null) {
+                builder.wiretapMaxBytes(wiretapMaxBytes);
+            }
+        });
+
         Map<String, Object> changes = new HashMap<>();
-        
-        if (enabled != null && enabled != loggingConfig.isEnabled()) {
-            loggingConfig.setEnabled(enabled);
-            changes.put("enabled", String.format("%s -> %s", !enabled, enabled));
-            log.info("WebClient logging enabled status changed to: {}", enabled);
-        }
-        
-        if (includeHeaders != null && includeHeaders != loggingConfig.isIncludeHeaders()) {
-            loggingConfig.setIncludeHeaders(includeHeaders);
-            changes.put("includeHeaders", String.format("%s -> %s", !includeHeaders, includeHeaders));
-            log.info("WebClient logging include headers changed to: {}", includeHeaders);
-        }
-        
-        if (includeBody != null && includeBody != loggingConfig.isIncludeBody()) {
-            loggingConfig.setIncludeBody(includeBody);
-            changes.put("includeBody", String.format("%s -> %s", !includeBody, includeBody));
-            log.info("WebClient logging include body changed to: {}", includeBody);
-        }
-        
-        if (maxBodySize != null && maxBodySize != loggingConfig.getMaxBodySize()) {
-            int oldSize = loggingConfig.getMaxBodySize();
-            loggingConfig.setMaxBodySize(maxBodySize);
-            changes.put("maxBodySize", String.format("%d -> %d", oldSize, maxBodySize));
-            log.info("WebClient logging max body size changed to: {}", maxBodySize);
-        }
-        
-        if (includeParameters != null && includeParameters != loggingConfig.isIncludeParameters()) {
-            loggingConfig.setIncludeParameters(includeParameters);
-            changes.put("includeParameters", String.format("%s -> %s", !includeParameters, includeParameters));
-            log.info("WebClient logging include parameters changed to: {}", includeParameters);
-        }
-        
-        if (maskSensitiveData != null && maskSensitiveData != loggingConfig.isMaskSensitiveData()) {
-            loggingConfig.setMaskSensitiveData(maskSensitiveData);
-            changes.put("maskSensitiveData", String.format("%s -> %s", !maskSensitiveData, maskSensitiveData));
-            log.info("WebClient logging mask sensitive data changed to: {}", maskSensitiveData);
-        }
-        
+        recordChange(changes, "enabled", before.enabled(), after.enabled());
+        recordChange(changes, "includeHeaders", before.includeHeaders(), after.includeHeaders());
+        recordChange(changes, "includeBody", before.includeBody(), after.includeBody());
+        recordChange(changes, "maxBodySize", before.maxBodySize(), after.maxBodySize());
+        recordChange(changes, "includeParameters", before.includeParameters(), after.includeParameters());
+        recordChange(changes, "maskSensitiveData", before.maskSensitiveData(), after.maskSensitiveData());
+        recordChange(changes, "samplingMode", before.samplingMode(), after.samplingMode());
+        recordChange(changes, "sampleRate", before.sampleRate(), after.sampleRate());
+        recordChange(changes, "rateLimitPerSecond", before.rateLimitPerSecond(), after.rateLimitPerSecond());
+        recordChange(changes, "alwaysLogErrorsAndSlow", before.alwaysLogErrorsAndSlow(),
+                after.alwaysLogErrorsAndSlow());
+        recordChange(changes, "slowThresholdMs", before.slowThresholdMs(), after.slowThresholdMs());
+        recordChange(changes, "wiretap", before.wiretap(), after.wiretap());
+        recordChange(changes, "wiretapMaxBytes", before.wiretapMaxBytes(), after.wiretapMaxBytes());
+
         Map<String, Object> response = new HashMap<>();
         response.put("timestamp", LocalDateTime.now());
         response.put("status", "updated");
         response.put("changes", changes);
-        response.put("currentConfiguration", createConfigurationMap());
+        response.put("currentConfiguration", createConfigurationMap(after));
         
         if (changes.isEmpty()) {
             response.put("message", "No changes made - all values were already set to the provided values");
@@ -101,14 +137,80 @@ public class WebClientLoggingEndpoint {
         return response;
     }
 
-    private Map<String, Object> createConfigurationMap() {
+    @WriteOperation
+    public Map<String, Object> updateRoute(@Selector String routeId,
+                                           @Nullable String host,
+                                           String pathPattern,
+                                           @Nullable Boolean enabled,
+                                           @Nullable Boolean includeBody,
+                                           @Nullable Boolean includeHeaders,
+                                           @Nullable Integer maxBodySize,
+                                           @Nullable SamplingMode samplingMode,
+                                           @Nullable Double sampleRate) {
+        RouteLoggingPolicy route = new RouteLoggingPolicy(routeId, host, pathPattern, enabled, includeBody,
+                includeHeaders, maxBodySize, samplingMode, sampleRate);
+        LoggingSettings after = loggingConfig.update(builder -> builder.routes(
+                replaceRoute(loggingConfig.getSettings().routes(), routeId, route)));
+        log.info("WebClient logging route {} set to: {}", routeId, route);
+
+        Map<String, Object> response = new HashMap<>();
+        response.put("timestamp", LocalDateTime.now());
+        response.put("status", "updated");
+        response.put("route", route);
+        response.put("routes", after.routes());
+        return response;
+    }
+
+    @DeleteOperation
+    public Map<String, Object> removeRoute(@Selector String routeId) {
+        LoggingSettings after = loggingConfig.update(builder -> builder.routes(
+                replaceRoute(loggingConfig.getSettings().routes(), routeId, null)));
+        log.info("WebClient logging route {} removed", routeId);
+
+        Map<String, Object> response = new HashMap<>();
+        response.put("timestamp", LocalDateTime.now());
+        response.put("status", "removed");
+        response.put("routes", after.routes());
+        return response;
+    }
+
+    private List<RouteLoggingPolicy> replaceRoute(List<RouteLoggingPolicy> routes, String routeId,
+                                                  RouteLoggingPolicy replacement) {
+        List<RouteLoggingPolicy> updated = new ArrayList<>();
+        for (RouteLoggingPolicy route : routes) {
+            if (!routeId.equals(route.id())) {
+                updated.add(route);
+            }
+        }
+        if (replacement != null) {
+            updated.add(replacement);
+        }
+        return updated;
+    }
+
+    private void recordChange(Map<String, Object> changes, String name, Object oldValue, Object newValue) {
+        if (!oldValue.equals(newValue)) {
+            changes.put(name, String.format("%s -> %s", oldValue, newValue));
+            log.info("WebClient logging {} changed to: {}", name, newValue);
+        }
+    }
+
+    private Map<String, Object> createConfigurationMap(LoggingSettings settings) {
         Map<String, Object> config = new HashMap<>();
-        config.put("enabled", loggingConfig.isEnabled());
-        config.put("includeHeaders", loggingConfig.isIncludeHeaders());
-        config.put("includeBody", loggingConfig.isIncludeBody());
-        config.put("maxBodySize", loggingConfig.getMaxBodySize());
-        config.put("includeParameters", loggingConfig.isIncludeParameters());
-        config.put("maskSensitiveData", loggingConfig.isMaskSensitiveData());
+        config.put("enabled", settings.enabled());
+        config.put("includeHeaders", settings.includeHeaders());
+        config.put("includeBody", settings.includeBody());
+        config.put("maxBodySize", settings.maxBodySize());
+        config.put("includeParameters", settings.includeParameters());
+        config.put("maskSensitiveData", settings.maskSensitiveData());
+        config.put("samplingMode", settings.samplingMode());
+        config.put("sampleRate", settings.sampleRate());
+        config.put("rateLimitPerSecond", settings.rateLimitPerSecond());
+        config.put("alwaysLogErrorsAndSlow", settings.alwaysLogErrorsAndSlow());
+        config.put("slowThresholdMs", settings.slowThresholdMs());
+        config.put("routes", settings.routes());
+        config.put("wiretap", settings.wiretap());
+        config.put("wiretapMaxBytes", settings.wiretapMaxBytes());
         return config;
     }
 }
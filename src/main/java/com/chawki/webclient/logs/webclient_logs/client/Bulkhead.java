@@ -0,0 +1,154 @@
+package com.chawki.webclient.logs.webclient_logs.client;
+
+import java.time.Duration;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import com.chawki.webclient.logs.webclient_logs.config.WebClientResilienceProperties;
+import com.chawki.webclient.logs.webclient_logs.exception.BulkheadFullException;
+
+import reactor.core.publisher.Mono;
+import reactor.core.publisher.MonoSink;
+
+/**
+ * Caps the calls in flight to a single host. Calls beyond {@code maxConcurrent} wait without
+ * blocking a thread, in a queue of at most {@code maxQueued} entries and for at most
+ * {@code maxWait}; anything beyond fails with {@link BulkheadFullException}.
+ */
+public class Bulkhead {
+
+	private static final int WAITING = 0;
+	private static final int GRANTED = 1;
+	private static final int CANCELLED = 2;
+
+	private final String host;
+	private final int maxConcurrent;
+	private final int maxQueued;
+	private final Duration maxWait;
+
+	private final AtomicInteger inUse = new AtomicInteger();
+	private final AtomicInteger queued = new AtomicInteger();
+	private final Queue<Waiter> waiters = new ConcurrentLinkedQueue<>();
+
+	public Bulkhead(String host, WebClientResilienceProperties.Bulkhead properties) {
+		this.host = host;
+		this.maxConcurrent = Math.max(1, properties.getMaxConcurrent());
+		this.maxQueued = Math.max(0, properties.getMaxQueued());
+		this.maxWait = properties.getMaxWait();
+	}
+
+	/**
+	 * A permit tracks one call: {@link Permit#release()} is safe to call from every terminal
+	 * path and only gives the slot back if it was granted.
+	 */
+	public Permit newPermit() {
+		return new Permit();
+	}
+
+	public int getInUse() {
+		return this.inUse.get();
+	}
+
+	public int getQueued() {
+		return this.queued.get();
+	}
+
+	public int getMaxConcurrent() {
+		return this.maxConcurrent;
+	}
+
+	private boolean tryAcquireSlot() {
+		int current;
+		do {
+			current = this.inUse.get();
+			if (current >= this.maxConcurrent) {
+				return false;
+			}
+		}
+		while (!this.inUse.compareAndSet(current, current + 1));
+		return true;
+	}
+
+	private void releaseSlot() {
+		this.inUse.decrementAndGet();
+		drain();
+	}
+
+	// Hands free slots to waiters. Whoever frees a slot or enqueues a waiter drains, and a slot
+	// taken for nothing is given back before checking the queue again, so no waiter is stranded
+	private void drain() {
+		while (!this.waiters.isEmpty() && tryAcquireSlot()) {
+			Waiter waiter = this.waiters.poll();
+			if (waiter != null && waiter.state.compareAndSet(WAITING, GRANTED)) {
+				this.queued.decrementAndGet();
+				waiter.grant();
+			}
+			else {
+				this.inUse.decrementAndGet();
+			}
+		}
+	}
+
+	public final class Permit {
+
+		private final AtomicBoolean held = new AtomicBoolean();
+
+		private Permit() {
+		}
+
+		/**
+		 * Completes once a slot is held, or fails with {@link BulkheadFullException}.
+		 */
+		public Mono<Void> acquire() {
+			return Mono.defer(() -> {
+				if (tryAcquireSlot()) {
+					this.held.set(true);
+					return Mono.<Void>empty();
+				}
+				if (queued.incrementAndGet() > maxQueued) {
+					queued.decrementAndGet();
+					return Mono.<Void>error(new BulkheadFullException(host));
+				}
+				return Mono.<Void>create(sink -> {
+					Waiter waiter = new Waiter(this, sink);
+					sink.onCancel(waiter::cancel);
+					waiters.offer(waiter);
+					drain();
+				}).timeout(maxWait, Mono.error(() -> new BulkheadFullException(host)));
+			});
+		}
+
+		public void release() {
+			if (this.held.compareAndSet(true, false)) {
+				releaseSlot();
+			}
+		}
+	}
+
+	private final class Waiter {
+
+		private final AtomicInteger state = new AtomicInteger(WAITING);
+		private final Permit permit;
+		private final MonoSink<Void> sink;
+
+		Waiter(Permit permit, MonoSink<Void> sink) {
+			this.permit = permit;
+			this.sink = sink;
+		}
+
+		void grant() {
+			// Marked held first: if the call is cancelled meanwhile, its release still frees the slot
+			this.permit.held.set(true);
+			this.sink.success();
+		}
+
+		void cancel() {
+			if (this.state.compareAndSet(WAITING, CANCELLED)) {
+				queued.decrementAndGet();
+				waiters.remove(this);
+			}
+		}
+	}
+}
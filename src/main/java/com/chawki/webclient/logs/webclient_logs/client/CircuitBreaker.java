@@ -0,0 +1,196 @@
+package com.chawki.webclient.logs.webclient_logs.client;
+
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.LongSupplier;
+
+import com.chawki.webclient.logs.webclient_logs.config.WebClientResilienceProperties;
+
+/**
+ * Circuit breaker of a single host. Outcomes are counted over a sliding window made of
+ * time buckets: each bucket is reset by the first call that lands in it after it expired,
+ * so no lock or background task is needed.
+ * <p>
+ * CLOSED opens once the window holds at least {@code minimumCalls} calls and the failure
+ * rate reaches the threshold. OPEN rejects every call for {@code openDuration}, then
+ * HALF_OPEN lets {@code halfOpenCalls} trial calls through: one failure opens the circuit
+ * again, all of them succeeding closes it.
+ */
+public class CircuitBreaker {
+
+	public enum State {
+		CLOSED, OPEN, HALF_OPEN
+	}
+
+	private final Bucket[] buckets;
+	private final long bucketNanos;
+	private final int minimumCalls;
+	private final double failureRateThreshold;
+	private final long openNanos;
+	private final int halfOpenCalls;
+	private final LongSupplier nanoClock;
+
+	private final AtomicReference<State> state = new AtomicReference<>(State.CLOSED);
+	private volatile long openedAt;
+	private final AtomicInteger halfOpenPermits = new AtomicInteger();
+	private final AtomicInteger halfOpenSuccesses = new AtomicInteger();
+
+	public CircuitBreaker(WebClientResilienceProperties.CircuitBreaker properties) {
+		this(properties, System::nanoTime);
+	}
+
+	CircuitBreaker(WebClientResilienceProperties.CircuitBreaker properties, LongSupplier nanoClock) {
+		int bucketCount = Math.max(1, properties.getBuckets());
+		this.buckets = new Bucket[bucketCount];
+		for (int i = 0; i < bucketCount; i++) {
+			this.buckets[i] = new Bucket();
+		}
+		this.bucketNanos = Math.max(1, properties.getWindow().toNanos() / bucketCount);
+		this.minimumCalls = Math.max(1, properties.getMinimumCalls());
+		this.failureRateThreshold = properties.getFailureRateThreshold();
+		this.openNanos = properties.getOpenDuration().toNanos();
+		this.halfOpenCalls = Math.max(1, properties.getHalfOpenCalls());
+		this.nanoClock = nanoClock;
+	}
+
+	/**
+	 * @return false when the call must fail fast; otherwise the caller reports exactly one of
+	 * {@link #onSuccess()}, {@link #onFailure()} or {@link #releasePermission()}
+	 */
+	public boolean tryAcquirePermission() {
+		State current = this.state.get();
+		if (current == State.CLOSED) {
+			return true;
+		}
+		if (current == State.OPEN) {
+			if (this.nanoClock.getAsLong() - this.openedAt < this.openNanos) {
+				return false;
+			}
+			// Only the caller that switches to HALF_OPEN arms the trial calls; others see no permit until then
+			if (this.state.compareAndSet(State.OPEN, State.HALF_OPEN)) {
+				this.halfOpenSuccesses.set(0);
+				this.halfOpenPermits.set(this.halfOpenCalls);
+			}
+		}
+		int permits;
+		do {
+			permits = this.halfOpenPermits.get();
+			if (permits <= 0) {
+				return false;
+			}
+		}
+		while (!this.halfOpenPermits.compareAndSet(permits, permits - 1));
+		return true;
+	}
+
+	/**
+	 * Gives back a permission whose call ended without an outcome (rejected by the bulkhead, cancelled).
+	 */
+	public void releasePermission() {
+		if (this.state.get() == State.HALF_OPEN) {
+			this.halfOpenPermits.incrementAndGet();
+		}
+	}
+
+	public void onSuccess() {
+		State current = this.state.get();
+		if (current == State.CLOSED) {
+			currentBucket().successes.increment();
+		}
+		else if (current == State.HALF_OPEN && this.halfOpenSuccesses.incrementAndGet() >= this.halfOpenCalls
+				&& this.state.compareAndSet(State.HALF_OPEN, State.CLOSED)) {
+			clearWindow();
+		}
+	}
+
+	public void onFailure() {
+		State current = this.state.get();
+		if (current == State.HALF_OPEN) {
+			open(State.HALF_OPEN);
+		}
+		else if (current == State.CLOSED) {
+			currentBucket().failures.increment();
+			long[] counts = windowCounts();
+			long total = counts[0] + counts[1];
+			if (total >= this.minimumCalls && (double) counts[1] / total >= this.failureRateThreshold) {
+				open(State.CLOSED);
+			}
+		}
+	}
+
+	public void reset() {
+		this.state.set(State.CLOSED);
+		clearWindow();
+	}
+
+	public State getState() {
+		return this.state.get();
+	}
+
+	/**
+	 * @return failed calls over all calls in the window, 0 when the window is empty
+	 */
+	public double getFailureRate() {
+		long[] counts = windowCounts();
+		long total = counts[0] + counts[1];
+		return total == 0 ? 0 : (double) counts[1] / total;
+	}
+
+	public long getCallCount() {
+		long[] counts = windowCounts();
+		return counts[0] + counts[1];
+	}
+
+	private void open(State from) {
+		// Written before the switch: a caller that sees OPEN also sees when it opened
+		this.openedAt = this.nanoClock.getAsLong();
+		this.halfOpenPermits.set(0);
+		if (this.state.compareAndSet(from, State.OPEN)) {
+			clearWindow();
+		}
+	}
+
+	private Bucket currentBucket() {
+		long epoch = this.nanoClock.getAsLong() / this.bucketNanos;
+		Bucket bucket = this.buckets[(int) Math.floorMod(epoch, (long) this.buckets.length)];
+		long bucketEpoch = bucket.epoch.get();
+		// The winner of the CAS recycles the expired bucket; an outcome recorded by another
+		// thread in between may be lost, which is acceptable for a rate
+		if (bucketEpoch != epoch && bucket.epoch.compareAndSet(bucketEpoch, epoch)) {
+			bucket.successes.reset();
+			bucket.failures.reset();
+		}
+		return bucket;
+	}
+
+	// [successes, failures] over the buckets that still belong to the window
+	private long[] windowCounts() {
+		long epoch = this.nanoClock.getAsLong() / this.bucketNanos;
+		long successes = 0;
+		long failures = 0;
+		for (Bucket bucket : this.buckets) {
+			if (bucket.epoch.get() > epoch - this.buckets.length) {
+				successes += bucket.successes.sum();
+				failures += bucket.failures.sum();
+			}
+		}
+		return new long[] { successes, failures };
+	}
+
+	private void clearWindow() {
+		for (Bucket bucket : this.buckets) {
+			bucket.epoch.set(Long.MIN_VALUE);
+			bucket.successes.reset();
+			bucket.failures.reset();
+		}
+	}
+
+	private static final class Bucket {
+
+		private final AtomicLong epoch = new AtomicLong(Long.MIN_VALUE);
+		private final LongAdder successes = new LongAdder();
+		private final LongAdder failures = new LongAdder();
+	}
+}
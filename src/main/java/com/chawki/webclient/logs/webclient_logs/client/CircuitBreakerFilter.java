@@ -0,0 +1,76 @@
+package com.chawki.webclient.logs.webclient_logs.client;
+
+import java.util.Collections;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+import org.springframework.web.reactive.function.client.ClientRequest;
+import org.springframework.web.reactive.function.client.ClientResponse;
+import org.springframework.web.reactive.function.client.ExchangeFilterFunction;
+import org.springframework.web.reactive.function.client.ExchangeFunction;
+
+import com.chawki.webclient.logs.webclient_logs.config.WebClientResilienceProperties;
+import com.chawki.webclient.logs.webclient_logs.exception.BulkheadFullException;
+import com.chawki.webclient.logs.webclient_logs.exception.CircuitBreakerOpenException;
+
+import reactor.core.publisher.Mono;
+
+/**
+ * Guards each host with a {@link CircuitBreaker} and a {@link Bulkhead}. While a circuit is
+ * open calls fail with {@link CircuitBreakerOpenException} without reaching the network.
+ * <p>
+ * The outcome is recorded when the response headers arrive: 5xx responses and errors
+ * (connect failures, timeouts) count as failures, anything else as a success. The bulkhead
+ * slot is held until the response body is consumed or released.
+ */
+public class CircuitBreakerFilter implements ExchangeFilterFunction {
+
+	private final WebClientResilienceProperties properties;
+	private final Map<String, CircuitBreaker> circuitBreakers = new ConcurrentHashMap<>();
+	private final Map<String, Bulkhead> bulkheads = new ConcurrentHashMap<>();
+
+	public CircuitBreakerFilter(WebClientResilienceProperties properties) {
+		this.properties = properties;
+	}
+
+	@Override
+	public Mono<ClientResponse> filter(ClientRequest request, ExchangeFunction next) {
+		String host = request.url().getHost();
+		CircuitBreaker circuitBreaker = this.circuitBreakers.computeIfAbsent(host,
+				key -> new CircuitBreaker(this.properties.getCircuitBreaker()));
+		Bulkhead bulkhead = this.bulkheads.computeIfAbsent(host,
+				key -> new Bulkhead(key, this.properties.getBulkhead()));
+
+		return Mono.defer(() -> {
+			if (!circuitBreaker.tryAcquirePermission()) {
+				return Mono.error(new CircuitBreakerOpenException(host));
+			}
+			Bulkhead.Permit permit = bulkhead.newPermit();
+			return permit.acquire()
+					.doOnError(BulkheadFullException.class, ex -> circuitBreaker.releasePermission())
+					.then(Mono.defer(() -> next.exchange(request)
+							.doOnNext(response -> {
+								if (response.statusCode().is5xxServerError()) {
+									circuitBreaker.onFailure();
+								} else {
+									circuitBreaker.onSuccess();
+								}
+							})
+							.doOnError(ex -> circuitBreaker.onFailure())
+							.doOnCancel(circuitBreaker::releasePermission)))
+					.map(response -> response.mutate()
+							.body(body -> body.doFinally(signal -> permit.release()))
+							.build())
+					.doOnError(ex -> permit.release())
+					.doOnCancel(permit::release);
+		});
+	}
+
+	public Map<String, CircuitBreaker> getCircuitBreakers() {
+		return Collections.unmodifiableMap(this.circuitBreakers);
+	}
+
+	public Map<String, Bulkhead> getBulkheads() {
+		return Collections.unmodifiableMap(this.bulkheads);
+	}
+}
@@ -0,0 +1,175 @@
+package com.chawki.webclient.logs.webclient_logs.client;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.core.io.buffer.DataBuffer;
+import org.springframework.core.io.buffer.DefaultDataBufferFactory;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.web.reactive.function.client.ClientRequest;
+import org.springframework.web.reactive.function.client.ClientResponse;
+import org.springframework.web.reactive.function.client.ExchangeFilterFunction;
+import org.springframework.web.reactive.function.client.ExchangeFunction;
+
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+/**
+ * Revalidates GETs instead of downloading them again. A 200 carrying {@code ETag} or
+ * {@code Last-Modified} is remembered in the {@link ValidatorStore}; the next GET of that URL
+ * sends {@code If-None-Match} / {@code If-Modified-Since}, and a {@code 304} is turned back
+ * into a 200 with the stored body, so callers never see the difference.
+ * <p>
+ * Requests that carry their own conditional headers or an Authorization header, responses
+ * marked {@code no-store} or {@code private} or with {@code Vary: *}, and bodies over
+ * {@code maxBodySize} are left alone. For the other headers named in {@code Vary}, a stored
+ * entry is only used by requests with the same values as the one that stored it.
+ */
+public class ConditionalRequestFilter implements ExchangeFilterFunction {
+
+	private static final Logger log = LoggerFactory.getLogger(ConditionalRequestFilter.class);
+
+	private final ValidatorStore store;
+	private final int maxBodySize;
+
+	public ConditionalRequestFilter(ValidatorStore store, int maxBodySize) {
+		this.store = store;
+		this.maxBodySize = maxBodySize;
+	}
+
+	@Override
+	public Mono<ClientResponse> filter(ClientRequest request, ExchangeFunction next) {
+		HttpHeaders requestHeaders = request.headers();
+		if (!HttpMethod.GET.equals(request.method()) || requestHeaders.containsKey(HttpHeaders.AUTHORIZATION)
+				|| requestHeaders.containsKey(HttpHeaders.IF_NONE_MATCH)
+				|| requestHeaders.containsKey(HttpHeaders.IF_MODIFIED_SINCE)) {
+			return next.exchange(request);
+		}
+		String url = request.url().toString();
+		return Mono.defer(() -> {
+			ValidatorStore.Entry stored = this.store.get(url);
+			// Another representation of the URL: fetch it in full, it then replaces the stored one
+			ValidatorStore.Entry cached = stored != null && stored.matches(requestHeaders) ? stored : null;
+			ClientRequest conditional = cached == null ? request : ClientRequest.from(request)
+					.headers(headers -> {
+						if (cached.etag() != null) {
+							headers.set(HttpHeaders.IF_NONE_MATCH, cached.etag());
+						}
+						if (cached.lastModified() != null) {
+							headers.set(HttpHeaders.IF_MODIFIED_SINCE, cached.lastModified());
+						}
+					})
+					.build();
+			return next.exchange(conditional).map(response -> {
+				int status = response.statusCode().value();
+				if (status == HttpStatus.NOT_MODIFIED.value() && cached != null) {
+					return fromStore(url, cached, response);
+				}
+				if (status == HttpStatus.OK.value()) {
+					return remember(url, requestHeaders, response);
+				}
+				return response;
+			});
+		});
+	}
+
+	private ClientResponse fromStore(String url, ValidatorStore.Entry cached, ClientResponse notModified) {
+		// A 304 may carry updated validators (RFC 9111 section 4.3.4)
+		HttpHeaders headers = notModified.headers().asHttpHeaders();
+		ValidatorStore.Entry entry = cached.withValidators(headers.getETag(),
+				headers.getFirst(HttpHeaders.LAST_MODIFIED));
+		if (entry != cached) {
+			this.store.put(url, entry);
+		}
+		log.debug("{} not modified, serving {} stored bytes", url, entry.body().length);
+		byte[] body = entry.body();
+		return notModified.mutate()
+				.statusCode(HttpStatus.OK)
+				.headers(responseHeaders -> {
+					// The stored body is already decoded
+					responseHeaders.remove(HttpHeaders.CONTENT_ENCODING);
+					responseHeaders.setContentLength(body.length);
+					if (entry.contentType() != null) {
+						responseHeaders.setContentType(entry.contentType());
+					}
+				})
+				.body(Flux.defer(() -> Flux.just(DefaultDataBufferFactory.sharedInstance.wrap(body))))
+				.build();
+	}
+
+	private ClientResponse remember(String url, HttpHeaders requestHeaders, ClientResponse response) {
+		HttpHeaders headers = response.headers().asHttpHeaders();
+		String etag = headers.getETag();
+		String lastModified = headers.getFirst(HttpHeaders.LAST_MODIFIED);
+		String cacheControl = headers.getCacheControl();
+		List<String> vary = headers.getVary();
+		boolean storable = (etag != null || lastModified != null) && headers.getContentLength() <= this.maxBodySize
+				&& (cacheControl == null || !(cacheControl.contains("no-store") || cacheControl.contains("private")))
+				&& !vary.contains("*");
+		if (!storable) {
+			this.store.remove(url);
+			return response;
+		}
+		MediaType contentType = headers.getContentType();
+		Map<String, List<String>> varyValues = new HashMap<>();
+		vary.forEach(name -> varyValues.put(name, requestHeaders.get(name)));
+		BodyCopy copy = new BodyCopy(this.maxBodySize, headers.getContentLength());
+		return response.mutate()
+				.body(body -> body
+						.doOnNext(copy::append)
+						.doOnComplete(() -> {
+							if (copy.complete()) {
+								this.store.put(url, new ValidatorStore.Entry(etag, lastModified, contentType,
+										copy.toByteArray(), Collections.unmodifiableMap(varyValues)));
+							}
+						}))
+				.build();
+	}
+
+	private static final class BodyCopy {
+
+		private final int maxSize;
+		// Grown by doubling, sized from Content-Length up front when the upstream sends one
+		private byte[] bytes;
+		private int size;
+		private boolean tooLarge;
+
+		BodyCopy(int maxSize, long contentLength) {
+			this.maxSize = maxSize;
+			this.bytes = new byte[(int) Math.min(maxSize, contentLength >= 0 ? contentLength : 1024)];
+		}
+
+		// Copies the readable bytes without moving the buffer's read position
+		void append(DataBuffer buffer) {
+			int length = buffer.readableByteCount();
+			if (this.tooLarge || this.size + length > this.maxSize) {
+				this.tooLarge = true;
+				return;
+			}
+			if (this.size + length > this.bytes.length) {
+				int capacity = (int) Math.min(this.maxSize, Math.max(this.size + length, 2L * this.bytes.length));
+				this.bytes = Arrays.copyOf(this.bytes, capacity);
+			}
+			int position = buffer.readPosition();
+			buffer.read(this.bytes, this.size, length);
+			buffer.readPosition(position);
+			this.size += length;
+		}
+
+		boolean complete() {
+			return !this.tooLarge;
+		}
+
+		byte[] toByteArray() {
+			return this.size == this.bytes.length ? this.bytes : Arrays.copyOf(this.bytes, this.size);
+		}
+	}
+}
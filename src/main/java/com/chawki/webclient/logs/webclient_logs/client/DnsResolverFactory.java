@@ -0,0 +1,63 @@
+package com.chawki.webclient.logs.webclient_logs.client;
+
+import java.net.InetSocketAddress;
+import java.util.ArrayList;
+import java.util.List;
+
+import com.chawki.webclient.logs.webclient_logs.config.WebClientDnsProperties;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.netty.channel.socket.DatagramChannel;
+import io.netty.resolver.AddressResolverGroup;
+import io.netty.resolver.dns.DnsAddressResolverGroup;
+import io.netty.resolver.dns.DnsNameResolverBuilder;
+import io.netty.resolver.dns.DnsServerAddressStreamProviders;
+import io.netty.resolver.dns.RoundRobinDnsAddressResolverGroup;
+import io.netty.resolver.dns.SequentialDnsServerAddressStreamProvider;
+
+/**
+ * Builds the non-blocking resolver used by the WebClient: Netty's DNS client on the
+ * connection's own event loop, with TTL-bounded positive and negative caching shared by
+ * all loops and counted by {@link MeteredDnsCache}.
+ */
+public final class DnsResolverFactory {
+
+	private DnsResolverFactory() {
+	}
+
+	/**
+	 * @param datagramChannelType UDP channel class matching the event loops the client runs on
+	 */
+	public static AddressResolverGroup<InetSocketAddress> create(WebClientDnsProperties dns,
+			Class<? extends DatagramChannel> datagramChannelType, MeterRegistry meterRegistry) {
+		MeteredDnsCache cache = new MeteredDnsCache((int) dns.getMinTtl().toSeconds(),
+				(int) dns.getMaxTtl().toSeconds(), (int) dns.getNegativeTtl().toSeconds(), meterRegistry);
+		DnsNameResolverBuilder builder = new DnsNameResolverBuilder()
+				.datagramChannelType(datagramChannelType)
+				.resolveCache(cache)
+				.queryTimeoutMillis(dns.getQueryTimeout().toMillis())
+				.nameServerProvider(dns.getNameServers().isEmpty() ? DnsServerAddressStreamProviders.platformDefault()
+						: new SequentialDnsServerAddressStreamProvider(parseNameServers(dns.getNameServers())));
+		return dns.isRoundRobin() ? new RoundRobinDnsAddressResolverGroup(builder)
+				: new DnsAddressResolverGroup(builder);
+	}
+
+	private static List<InetSocketAddress> parseNameServers(List<String> nameServers) {
+		List<InetSocketAddress> addresses = new ArrayList<>();
+		for (String nameServer : nameServers) {
+			String value = nameServer.trim();
+			// Name servers must be IP literals ("10.0.0.2", "10.0.0.2:5353", "[::1]:5353"):
+			// resolving them would need a resolver
+			int colon = value.lastIndexOf(':');
+			boolean hasPort = colon > 0 && (value.startsWith("[") ? value.charAt(colon - 1) == ']'
+					: value.indexOf(':') == colon);
+			String host = hasPort ? value.substring(0, colon) : value;
+			int port = hasPort ? Integer.parseInt(value.substring(colon + 1)) : 53;
+			if (host.startsWith("[") && host.endsWith("]")) {
+				host = host.substring(1, host.length() - 1);
+			}
+			addresses.add(new InetSocketAddress(host, port));
+		}
+		return addresses;
+	}
+}
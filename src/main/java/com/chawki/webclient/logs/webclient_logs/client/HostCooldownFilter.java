@@ -0,0 +1,65 @@
+package com.chawki.webclient.logs.webclient_logs.client;
+
+import java.time.Duration;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.http.HttpStatus;
+import org.springframework.web.reactive.function.client.ClientRequest;
+import org.springframework.web.reactive.function.client.ClientResponse;
+import org.springframework.web.reactive.function.client.ExchangeFilterFunction;
+import org.springframework.web.reactive.function.client.ExchangeFunction;
+
+import com.chawki.webclient.logs.webclient_logs.config.WebClientRetryProperties;
+
+import reactor.core.publisher.Mono;
+
+/**
+ * Turns upstream throttling into client-side pacing. A 429 (or a 503 with Retry-After)
+ * puts its host in cooldown for the Retry-After delay; until then every request to that
+ * host waits, without holding a thread, instead of adding to the 429s.
+ */
+public class HostCooldownFilter implements ExchangeFilterFunction {
+
+	private static final Logger log = LoggerFactory.getLogger(HostCooldownFilter.class);
+
+	private final HostCooldownRegistry registry;
+	private final Duration defaultCooldown;
+	private final Duration maxCooldown;
+
+	public HostCooldownFilter(HostCooldownRegistry registry, WebClientRetryProperties.RateLimit properties) {
+		this.registry = registry;
+		this.defaultCooldown = properties.getDefaultCooldown();
+		this.maxCooldown = properties.getMaxCooldown();
+	}
+
+	@Override
+	public Mono<ClientResponse> filter(ClientRequest request, ExchangeFunction next) {
+		String host = request.url().getHost();
+		Mono<ClientResponse> exchange = Mono.defer(() -> next.exchange(request))
+				.doOnNext(response -> onResponse(host, response));
+		return Mono.defer(() -> {
+			Duration wait = this.registry.remaining(host);
+			if (wait.isZero()) {
+				return exchange;
+			}
+			log.debug("Host {} is cooling down, delaying {} {} by {} ms", host, request.method(), request.url(),
+					wait.toMillis());
+			return Mono.delay(HostCooldownRegistry.withJitter(wait)).then(exchange);
+		});
+	}
+
+	private void onResponse(String host, ClientResponse response) {
+		int status = response.statusCode().value();
+		if (status != HttpStatus.TOO_MANY_REQUESTS.value() && status != HttpStatus.SERVICE_UNAVAILABLE.value()) {
+			return;
+		}
+		Duration cooldown = this.registry.retryAfter(response.headers().asHttpHeaders())
+				.orElse(status == HttpStatus.TOO_MANY_REQUESTS.value() ? this.defaultCooldown : null);
+		if (cooldown != null && !cooldown.isZero()) {
+			cooldown = cooldown.compareTo(this.maxCooldown) > 0 ? this.maxCooldown : cooldown;
+			log.warn("Host {} answered {}, pacing its calls for {} ms", host, status, cooldown.toMillis());
+			this.registry.coolDown(host, cooldown);
+		}
+	}
+}
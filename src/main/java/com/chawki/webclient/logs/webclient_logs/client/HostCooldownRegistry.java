@@ -0,0 +1,98 @@
+package com.chawki.webclient.logs.webclient_logs.client;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Map;
+import java.util.Optional;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.springframework.http.HttpHeaders;
+
+/**
+ * "Cooldown until" timestamp per host, shared by every caller. Set when a host throttles
+ * (429, or 503 with Retry-After) and only ever pushed later, so concurrent responses
+ * cannot shorten a cooldown.
+ */
+public class HostCooldownRegistry {
+
+	private final Map<String, AtomicLong> cooldownUntil = new ConcurrentHashMap<>();
+	private final Clock clock;
+
+	public HostCooldownRegistry() {
+		this(Clock.systemUTC());
+	}
+
+	HostCooldownRegistry(Clock clock) {
+		this.clock = clock;
+	}
+
+	public void coolDown(String host, Duration duration) {
+		long until = this.clock.millis() + duration.toMillis();
+		this.cooldownUntil.computeIfAbsent(host, key -> new AtomicLong()).accumulateAndGet(until, Math::max);
+	}
+
+	/**
+	 * @return time left before the host may be called again, {@link Duration#ZERO} if none
+	 */
+	public Duration remaining(String host) {
+		AtomicLong until = this.cooldownUntil.get(host);
+		if (until == null) {
+			return Duration.ZERO;
+		}
+		long left = until.get() - this.clock.millis();
+		return left > 0 ? Duration.ofMillis(left) : Duration.ZERO;
+	}
+
+	/**
+	 * Hosts currently cooling down, with the instant each one may be called again.
+	 */
+	public Map<String, Instant> getCooldowns() {
+		long now = this.clock.millis();
+		Map<String, Instant> cooldowns = new TreeMap<>();
+		this.cooldownUntil.forEach((host, until) -> {
+			if (until.get() > now) {
+				cooldowns.put(host, Instant.ofEpochMilli(until.get()));
+			}
+		});
+		return cooldowns;
+	}
+
+	/**
+	 * Parses {@code Retry-After} as delay-seconds or as an HTTP-date (RFC 9110 section 10.2.3).
+	 * A date in the past yields {@link Duration#ZERO}; a missing or malformed header yields empty.
+	 */
+	public Optional<Duration> retryAfter(HttpHeaders headers) {
+		String value = headers.getFirst(HttpHeaders.RETRY_AFTER);
+		if (value == null || value.isBlank()) {
+			return Optional.empty();
+		}
+		value = value.trim();
+		if (value.chars().allMatch(Character::isDigit)) {
+			try {
+				return Optional.of(Duration.ofSeconds(Long.parseLong(value)));
+			}
+			catch (NumberFormatException ex) {
+				return Optional.empty();
+			}
+		}
+		try {
+			long date = headers.getFirstDate(HttpHeaders.RETRY_AFTER);
+			return Optional.of(Duration.ofMillis(Math.max(0, date - this.clock.millis())));
+		}
+		catch (IllegalArgumentException ex) {
+			return Optional.empty();
+		}
+	}
+
+	/**
+	 * Adds up to 10% to a wait, so callers released by the same cooldown do not all fire at once.
+	 */
+	static Duration withJitter(Duration wait) {
+		long millis = wait.toMillis();
+		return Duration.ofMillis(millis + ThreadLocalRandom.current().nextLong(millis / 10 + 1));
+	}
+}
@@ -0,0 +1,57 @@
+package com.chawki.webclient.logs.webclient_logs.client;
+
+import java.util.Arrays;
+import java.util.OptionalLong;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Latest latencies of one call, kept in a ring buffer written without locks. Percentiles
+ * are computed from a sorted copy, which is cached until 1/16 of the buffer has been
+ * overwritten: reading one on every request stays cheap.
+ */
+public class LatencyTracker {
+
+	private final AtomicLongArray samples;
+	private final AtomicLong count = new AtomicLong();
+
+	private volatile long[] sorted;
+	private volatile long sortedAtCount = Long.MIN_VALUE;
+
+	public LatencyTracker(int size) {
+		this.samples = new AtomicLongArray(Math.max(16, size));
+	}
+
+	public void record(long latencyNanos) {
+		long index = this.count.getAndIncrement();
+		this.samples.set((int) (index % this.samples.length()), latencyNanos);
+	}
+
+	public long getCount() {
+		return this.count.get();
+	}
+
+	/**
+	 * @param percentile between 0 and 1
+	 * @return the latency in nanoseconds, empty until {@code minSamples} latencies are recorded
+	 */
+	public OptionalLong percentile(double percentile, int minSamples) {
+		long recorded = this.count.get();
+		if (recorded < Math.max(1, minSamples)) {
+			return OptionalLong.empty();
+		}
+		long[] snapshot = this.sorted;
+		if (snapshot == null || recorded - this.sortedAtCount >= this.samples.length() / 16) {
+			int length = (int) Math.min(recorded, this.samples.length());
+			snapshot = new long[length];
+			for (int i = 0; i < length; i++) {
+				snapshot[i] = this.samples.get(i);
+			}
+			Arrays.sort(snapshot);
+			this.sorted = snapshot;
+			this.sortedAtCount = recorded;
+		}
+		int rank = (int) Math.ceil(percentile * snapshot.length) - 1;
+		return OptionalLong.of(snapshot[Math.max(0, Math.min(snapshot.length - 1, rank))]);
+	}
+}
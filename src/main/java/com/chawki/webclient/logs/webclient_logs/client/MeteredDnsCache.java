@@ -0,0 +1,74 @@
+package com.chawki.webclient.logs.webclient_logs.client;
+
+import java.net.InetAddress;
+import java.util.List;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.netty.channel.EventLoop;
+import io.netty.handler.codec.dns.DnsRecord;
+import io.netty.resolver.dns.DefaultDnsCache;
+import io.netty.resolver.dns.DnsCache;
+import io.netty.resolver.dns.DnsCacheEntry;
+
+/**
+ * {@link DefaultDnsCache} that counts its lookups as {@code webclient.dns.cache} with a
+ * {@code result} tag: {@code hit}, {@code negative-hit} (a cached failure) or {@code miss}.
+ */
+public class MeteredDnsCache implements DnsCache {
+
+	private final DnsCache delegate;
+	private final Counter hits;
+	private final Counter negativeHits;
+	private final Counter misses;
+
+	public MeteredDnsCache(int minTtlSeconds, int maxTtlSeconds, int negativeTtlSeconds, MeterRegistry registry) {
+		this.delegate = new DefaultDnsCache(minTtlSeconds, maxTtlSeconds, negativeTtlSeconds);
+		this.hits = counter(registry, "hit");
+		this.negativeHits = counter(registry, "negative-hit");
+		this.misses = counter(registry, "miss");
+	}
+
+	private static Counter counter(MeterRegistry registry, String result) {
+		return Counter.builder("webclient.dns.cache")
+				.description("WebClient DNS cache lookups")
+				.tag("result", result)
+				.register(registry);
+	}
+
+	@Override
+	public List<? extends DnsCacheEntry> get(String hostname, DnsRecord[] additionals) {
+		List<? extends DnsCacheEntry> entries = this.delegate.get(hostname, additionals);
+		if (entries == null || entries.isEmpty()) {
+			this.misses.increment();
+		}
+		else if (entries.get(0).cause() != null) {
+			this.negativeHits.increment();
+		}
+		else {
+			this.hits.increment();
+		}
+		return entries;
+	}
+
+	@Override
+	public DnsCacheEntry cache(String hostname, DnsRecord[] additionals, InetAddress address, long originalTtl,
+			EventLoop loop) {
+		return this.delegate.cache(hostname, additionals, address, originalTtl, loop);
+	}
+
+	@Override
+	public DnsCacheEntry cache(String hostname, DnsRecord[] additionals, Throwable cause, EventLoop loop) {
+		return this.delegate.cache(hostname, additionals, cause, loop);
+	}
+
+	@Override
+	public void clear() {
+		this.delegate.clear();
+	}
+
+	@Override
+	public boolean clear(String hostname) {
+		return this.delegate.clear(hostname);
+	}
+}
@@ -0,0 +1,144 @@
+package com.chawki.webclient.logs.webclient_logs.client;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Function;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import com.chawki.webclient.logs.webclient_logs.exception.BatchQueueFullException;
+import com.chawki.webclient.logs.webclient_logs.exception.WebClientException;
+
+import reactor.core.Disposable;
+import reactor.core.publisher.Mono;
+import reactor.core.publisher.Sinks;
+import reactor.util.concurrent.Queues;
+
+/**
+ * Aggregates single-item calls into bulk calls. Items submitted within {@code maxWait} of each
+ * other are sent together, up to {@code maxBatchSize} per call, and each caller gets back the
+ * result at its own position in the bulk response: the bulk call must answer in request order,
+ * with one result per item.
+ * <p>
+ * Without a bulk call every item goes through the single call, still at most
+ * {@code concurrency} at a time, as does a batch of one. A failed bulk call fails every
+ * caller of the batch. Once submitted, an item is sent even if its caller cancels.
+ * <p>
+ * At most {@code maxQueued} items wait for a free slot; past that, submissions fail at once
+ * with {@link BatchQueueFullException} rather than piling up.
+ */
+public class MicroBatcher<T, R> {
+
+	private static final Logger log = LoggerFactory.getLogger(MicroBatcher.class);
+
+	private final String name;
+	private final Function<List<T>, Mono<List<R>>> bulkCall;
+	private final Function<T, Mono<R>> singleCall;
+
+	private final int maxQueued;
+	private final AtomicInteger queued = new AtomicInteger();
+	// Submitters only offer to a multi-producer queue; the sink's work-stealing drain loop hands
+	// items downstream, so concurrent submitters neither lock nor spin. Bounded by 'queued'.
+	private final Sinks.Many<Pending<T, R>> queue = Sinks.unsafe().many().unicast()
+			.onBackpressureBuffer(Queues.<Pending<T, R>>unboundedMultiproducer().get());
+	private final Disposable subscription;
+
+	/**
+	 * @param bulkCall null to send every item through {@code singleCall}
+	 */
+	public MicroBatcher(String name, int maxBatchSize, Duration maxWait, int concurrency, int maxQueued,
+			Function<List<T>, Mono<List<R>>> bulkCall, Function<T, Mono<R>> singleCall) {
+		this.name = name;
+		this.maxQueued = Math.max(1, maxQueued);
+		this.bulkCall = bulkCall;
+		this.singleCall = singleCall;
+		int maxInFlight = Math.max(1, concurrency);
+		if (bulkCall != null) {
+			// Fair backpressure: a full or timed out buffer waits for a free slot instead of erroring
+			this.subscription = this.queue.asFlux()
+					.doOnNext(pending -> this.queued.decrementAndGet())
+					.bufferTimeout(Math.max(1, maxBatchSize), maxWait, true)
+					.flatMap(this::flush, maxInFlight)
+					.subscribe();
+		} else {
+			this.subscription = this.queue.asFlux()
+					.doOnNext(pending -> this.queued.decrementAndGet())
+					.flatMap(this::send, maxInFlight)
+					.subscribe();
+		}
+	}
+
+	public Mono<R> submit(T item) {
+		return Mono.defer(() -> {
+			if (this.queued.incrementAndGet() > this.maxQueued) {
+				this.queued.decrementAndGet();
+				return Mono.error(new BatchQueueFullException(this.name, this.maxQueued));
+			}
+			Pending<T, R> pending = new Pending<>(item, Sinks.one());
+			Sinks.EmitResult emitted = this.queue.tryEmitNext(pending);
+			if (emitted.isFailure()) {
+				this.queued.decrementAndGet();
+				return Mono.error(new WebClientException("Batcher " + this.name + " is not accepting items: " + emitted));
+			}
+			return pending.result().asMono();
+		});
+	}
+
+	public int getQueued() {
+		return Math.max(0, this.queued.get());
+	}
+
+	/**
+	 * Stops accepting items; those already queued are still sent.
+	 */
+	public void dispose() {
+		this.queue.tryEmitComplete();
+	}
+
+	private Mono<Void> flush(List<Pending<T, R>> batch) {
+		if (batch.size() == 1) {
+			return send(batch.get(0));
+		}
+		log.debug("Sending {} items in one call for batcher {}", batch.size(), this.name);
+		return Mono.defer(() -> this.bulkCall.apply(batch.stream().map(Pending::item).toList()))
+				.doOnNext(results -> {
+					if (results.size() != batch.size()) {
+						WebClientException mismatch = new WebClientException("Bulk call of batcher " + this.name
+								+ " returned " + results.size() + " results for " + batch.size() + " items");
+						batch.forEach(pending -> pending.result().tryEmitError(mismatch));
+						return;
+					}
+					for (int i = 0; i < batch.size(); i++) {
+						batch.get(i).result().tryEmitValue(results.get(i));
+					}
+				})
+				.doOnError(error -> batch.forEach(pending -> pending.result().tryEmitError(error)))
+				// Empty bulk response: nothing to hand out
+				.doOnSuccess(results -> {
+					if (results == null) {
+						batch.forEach(pending -> pending.result().tryEmitEmpty());
+					}
+				})
+				.onErrorResume(error -> Mono.empty())
+				.then();
+	}
+
+	// Errors go to the caller only: the queue subscription must outlive any one failure
+	private Mono<Void> send(Pending<T, R> pending) {
+		return Mono.defer(() -> this.singleCall.apply(pending.item()))
+				.doOnNext(result -> pending.result().tryEmitValue(result))
+				.doOnSuccess(result -> {
+					if (result == null) {
+						pending.result().tryEmitEmpty();
+					}
+				})
+				.doOnError(error -> pending.result().tryEmitError(error))
+				.onErrorResume(error -> Mono.empty())
+				.then();
+	}
+
+	private record Pending<T, R>(T item, Sinks.One<R> result) {
+	}
+}
@@ -0,0 +1,234 @@
+package com.chawki.webclient.logs.webclient_logs.client;
+
+import java.time.Duration;
+import java.util.Map;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Function;
+import java.util.function.ToIntFunction;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Scheduler;
+
+/**
+ * Non-blocking read-through cache for values loaded with a {@link Mono}.
+ * <p>
+ * An entry is fresh for {@code ttl}, then served stale for {@code staleWhileRevalidate} while
+ * a single background load refreshes it; past that it is a miss. The total weight of the
+ * entries is bounded: the oldest writes are evicted first. Concurrent misses are not
+ * coalesced here, loaders are expected to go through {@link SingleFlight}.
+ * <p>
+ * Time comes from the {@link Scheduler}, so tests can drive it with a virtual time scheduler.
+ * Counted as {@code webclient.cache.requests} (result: hit, stale, miss) and
+ * {@code webclient.cache.evictions}, both tagged with the cache name.
+ */
+public class ReactiveCache<K, V> {
+
+	private static final Logger log = LoggerFactory.getLogger(ReactiveCache.class);
+
+	private final String name;
+	private final long ttlNanos;
+	private final long staleNanos;
+	private final long maxWeight;
+	private final ToIntFunction<V> weigher;
+	private final Scheduler clock;
+
+	private final Map<K, Entry<K, V>> entries = new ConcurrentHashMap<>();
+	// Write order, for eviction; entries replaced or removed since are skipped when polled
+	private final Queue<Entry<K, V>> writeOrder = new ConcurrentLinkedQueue<>();
+	private final AtomicInteger writeOrderSize = new AtomicInteger();
+	private final AtomicLong weight = new AtomicLong();
+	// Loads in flight per key, with the invalidations of that key since the first of them started:
+	// a load does not store its result when its key was invalidated after it started
+	private final Map<K, Loads> loads = new ConcurrentHashMap<>();
+	// Same for invalidateAll, which covers every key
+	private final AtomicLong fullInvalidations = new AtomicLong();
+
+	private final Counter hits;
+	private final Counter staleHits;
+	private final Counter misses;
+	private final Counter evictions;
+
+	/**
+	 * @param ttl {@link Duration#ZERO} disables the cache: every get calls the loader
+	 */
+	public ReactiveCache(String name, Duration ttl, Duration staleWhileRevalidate, long maxWeight,
+			ToIntFunction<V> weigher, Scheduler clock, MeterRegistry registry) {
+		this.name = name;
+		this.ttlNanos = ttl.toNanos();
+		this.staleNanos = staleWhileRevalidate.toNanos();
+		this.maxWeight = maxWeight;
+		this.weigher = weigher;
+		this.clock = clock;
+		this.hits = counter(registry, "hit");
+		this.staleHits = counter(registry, "stale");
+		this.misses = counter(registry, "miss");
+		this.evictions = Counter.builder("webclient.cache.evictions")
+				.description("Entries evicted to stay within the cache weight")
+				.tag("cache", name)
+				.register(registry);
+		Gauge.builder("webclient.cache.size", this.entries, Map::size)
+				.tag("cache", name)
+				.register(registry);
+	}
+
+	private Counter counter(MeterRegistry registry, String result) {
+		return Counter.builder("webclient.cache.requests")
+				.description("Cache lookups")
+				.tag("cache", this.name)
+				.tag("result", result)
+				.register(registry);
+	}
+
+	public Mono<V> get(K key, Function<K, Mono<V>> loader) {
+		if (this.ttlNanos <= 0) {
+			return Mono.defer(() -> loader.apply(key));
+		}
+		return Mono.defer(() -> {
+			long now = now();
+			Entry<K, V> entry = this.entries.get(key);
+			if (entry != null) {
+				long age = now - entry.writtenAt;
+				if (age < this.ttlNanos) {
+					this.hits.increment();
+					return Mono.just(entry.value);
+				}
+				if (age < this.ttlNanos + this.staleNanos) {
+					this.staleHits.increment();
+					refresh(entry, loader);
+					return Mono.just(entry.value);
+				}
+			}
+			this.misses.increment();
+			return load(key, loader);
+		});
+	}
+
+	public void invalidate(K key) {
+		// Serialized with the store of a concurrent load of the key, see put
+		this.loads.computeIfPresent(key, (k, current) -> new Loads(current.inFlight(), current.generation() + 1));
+		remove(key);
+	}
+
+	public void invalidateAll() {
+		this.fullInvalidations.incrementAndGet();
+		this.entries.keySet().forEach(this::remove);
+	}
+
+	public int size() {
+		return this.entries.size();
+	}
+
+	public long weight() {
+		return this.weight.get();
+	}
+
+	private Mono<V> load(K key, Function<K, Mono<V>> loader) {
+		long fullInvalidationsAtStart = this.fullInvalidations.get();
+		long generation = this.loads.compute(key, (k, current) -> current == null ? new Loads(1, 0)
+				: new Loads(current.inFlight() + 1, current.generation())).generation();
+		return loader.apply(key)
+				.doOnNext(value -> put(key, value, generation, fullInvalidationsAtStart))
+				.doFinally(signal -> this.loads.computeIfPresent(key,
+						(k, current) -> current.inFlight() > 1 ? new Loads(current.inFlight() - 1, current.generation())
+								: null));
+	}
+
+	// One refresh per entry at a time; a failed refresh keeps serving the stale value
+	private void refresh(Entry<K, V> entry, Function<K, Mono<V>> loader) {
+		if (!entry.refreshing.compareAndSet(false, true)) {
+			return;
+		}
+		load(entry.key, loader)
+				.doFinally(signal -> entry.refreshing.set(false))
+				.subscribe(value -> {
+				}, error -> log.debug("Background refresh of {} in cache {} failed: {}", entry.key, this.name,
+						error.toString()));
+	}
+
+	private void put(K key, V value, long generation, long fullInvalidationsAtStart) {
+		int entryWeight = Math.max(0, this.weigher.applyAsInt(value));
+		if (entryWeight > this.maxWeight) {
+			return;
+		}
+		Entry<K, V> entry = new Entry<>(key, value, entryWeight, now());
+		// Checked and stored under the key's lock in the loads map, so an invalidation of the key
+		// lands either before (the load is dropped) or after (the entry is removed)
+		this.loads.computeIfPresent(key, (k, current) -> {
+			if (current.generation() == generation && this.fullInvalidations.get() == fullInvalidationsAtStart) {
+				Entry<K, V> previous = this.entries.put(key, entry);
+				this.weight.addAndGet(entryWeight - (previous != null ? previous.weight : 0));
+				this.writeOrder.offer(entry);
+				this.writeOrderSize.incrementAndGet();
+			}
+			return current;
+		});
+		evict();
+	}
+
+	private void remove(K key) {
+		Entry<K, V> removed = this.entries.remove(key);
+		if (removed != null) {
+			this.weight.addAndGet(-removed.weight);
+		}
+	}
+
+	private void evict() {
+		while (this.weight.get() > this.maxWeight) {
+			Entry<K, V> oldest = this.writeOrder.poll();
+			if (oldest == null) {
+				return;
+			}
+			this.writeOrderSize.decrementAndGet();
+			// Only the entry still mapped counts: a replaced one was already deducted
+			if (this.entries.remove(oldest.key, oldest)) {
+				this.weight.addAndGet(-oldest.weight);
+				this.evictions.increment();
+			}
+		}
+		// Keep the queue from growing with replaced entries when nothing needs evicting
+		if (this.writeOrderSize.get() > 2 * this.entries.size() + 16) {
+			this.writeOrder.removeIf(entry -> {
+				boolean replaced = this.entries.get(entry.key) != entry;
+				if (replaced) {
+					this.writeOrderSize.decrementAndGet();
+				}
+				return replaced;
+			});
+		}
+	}
+
+	private long now() {
+		return this.clock.now(TimeUnit.NANOSECONDS);
+	}
+
+	private record Loads(int inFlight, long generation) {
+	}
+
+	private static final class Entry<K, V> {
+
+		private final K key;
+		private final V value;
+		private final int weight;
+		private final long writtenAt;
+		private final AtomicBoolean refreshing = new AtomicBoolean();
+
+		Entry(K key, V value, int weight, long writtenAt) {
+			this.key = key;
+			this.value = value;
+			this.weight = weight;
+			this.writtenAt = writtenAt;
+		}
+	}
+}
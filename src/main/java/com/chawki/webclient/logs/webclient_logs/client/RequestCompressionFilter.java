@@ -0,0 +1,86 @@
+package com.chawki.webclient.logs.webclient_logs.client;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.util.zip.GZIPOutputStream;
+
+import org.reactivestreams.Publisher;
+import org.springframework.core.io.buffer.DataBuffer;
+import org.springframework.core.io.buffer.DataBufferUtils;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.client.reactive.ClientHttpRequest;
+import org.springframework.http.client.reactive.ClientHttpRequestDecorator;
+import org.springframework.web.reactive.function.client.ClientRequest;
+import org.springframework.web.reactive.function.client.ClientResponse;
+import org.springframework.web.reactive.function.client.ExchangeFilterFunction;
+import org.springframework.web.reactive.function.client.ExchangeFunction;
+
+import reactor.core.publisher.Mono;
+
+/**
+ * Gzips outbound bodies of at least {@code minSize} bytes. Only single-buffer bodies
+ * (e.g. {@code bodyValue}) are considered: their size is known up front, whereas streamed
+ * bodies are sent unchanged. Requests that already carry a Content-Encoding are left alone.
+ */
+public class RequestCompressionFilter implements ExchangeFilterFunction {
+
+	private final int minSize;
+
+	public RequestCompressionFilter(int minSize) {
+		this.minSize = minSize;
+	}
+
+	@Override
+	public Mono<ClientResponse> filter(ClientRequest request, ExchangeFunction next) {
+		if (request.headers().containsKey(HttpHeaders.CONTENT_ENCODING)) {
+			return next.exchange(request);
+		}
+		ClientRequest compressingRequest = ClientRequest.from(request)
+				.body((outputMessage, context) -> request.body()
+						.insert(new CompressingRequestDecorator(outputMessage, this.minSize), context))
+				.build();
+		return next.exchange(compressingRequest);
+	}
+
+	private static class CompressingRequestDecorator extends ClientHttpRequestDecorator {
+
+		private final int minSize;
+
+		CompressingRequestDecorator(ClientHttpRequest delegate, int minSize) {
+			super(delegate);
+			this.minSize = minSize;
+		}
+
+		@Override
+		public Mono<Void> writeWith(Publisher<? extends DataBuffer> body) {
+			if (!(body instanceof Mono)) {
+				return super.writeWith(body);
+			}
+			return Mono.<DataBuffer>from(body).flatMap(buffer -> {
+				if (buffer.readableByteCount() < this.minSize) {
+					return super.writeWith(Mono.just(buffer));
+				}
+				DataBuffer compressed = gzip(buffer);
+				// Headers are still writable: nothing is committed before writeWith
+				getHeaders().set(HttpHeaders.CONTENT_ENCODING, "gzip");
+				getHeaders().setContentLength(compressed.readableByteCount());
+				return super.writeWith(Mono.just(compressed));
+			});
+		}
+
+		private DataBuffer gzip(DataBuffer source) {
+			DataBuffer target = bufferFactory().allocateBuffer(Math.max(source.readableByteCount() / 4, 256));
+			try (InputStream in = source.asInputStream(true);
+					OutputStream out = new GZIPOutputStream(target.asOutputStream())) {
+				in.transferTo(out);
+			}
+			catch (IOException ex) {
+				DataBufferUtils.release(target);
+				throw new UncheckedIOException("Failed to gzip request body", ex);
+			}
+			return target;
+		}
+	}
+}
@@ -0,0 +1,98 @@
+package com.chawki.webclient.logs.webclient_logs.client;
+
+import java.time.Duration;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.OptionalLong;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.Supplier;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import com.chawki.webclient.logs.webclient_logs.config.WebClientHedgingProperties;
+
+import reactor.core.publisher.Mono;
+import reactor.core.publisher.Sinks;
+
+/**
+ * Hedges idempotent calls: when the call has not answered after the configured percentile
+ * of its recent latencies, the same call is sent again and whichever answers first wins;
+ * the other one is cancelled. An attempt that fails does not win: the caller only sees the
+ * first attempt's error once no hedge is left that could still answer. Hedges spend tokens
+ * from a {@link RetryBudget}, so they add at most the budget ratio to the load on the upstream.
+ * <p>
+ * Only use it for calls that are safe to send twice (GET, HEAD).
+ */
+public class RequestHedger {
+
+	private static final Logger log = LoggerFactory.getLogger(RequestHedger.class);
+
+	private final WebClientHedgingProperties properties;
+	private final RetryBudget budget;
+	private final Map<String, LatencyTracker> trackers = new ConcurrentHashMap<>();
+
+	public RequestHedger(WebClientHedgingProperties properties) {
+		this.properties = properties;
+		WebClientHedgingProperties.Budget budget = properties.getBudget();
+		this.budget = new RetryBudget(budget.getRatio(), budget.getMinPerSecond(), budget.getMaxBalance());
+	}
+
+	/**
+	 * @param operation names the call, e.g. "GET /users/{id}": latencies are tracked per operation
+	 * @param call builds one attempt; invoked once more for the hedge
+	 */
+	public <T> Mono<T> hedge(String operation, Supplier<Mono<T>> call) {
+		if (!this.properties.isEnabled()) {
+			return Mono.defer(call);
+		}
+		LatencyTracker tracker = this.trackers.computeIfAbsent(operation,
+				key -> new LatencyTracker(this.properties.getSampleSize()));
+		return Mono.defer(() -> {
+			this.budget.onCall();
+			Duration delay = hedgeDelay(tracker);
+			AtomicReference<Throwable> firstError = new AtomicReference<>();
+			Sinks.Empty<Void> firstDone = Sinks.empty();
+			Mono<T> first = timed(tracker, call)
+					.doOnError(firstError::set)
+					.doFinally(signal -> firstDone.tryEmitEmpty());
+			// Not sent once the first attempt is over, nor when out of budget
+			Mono<T> hedged = Mono.delay(delay)
+					.takeUntilOther(firstDone.asMono())
+					.flatMap(tick -> {
+						if (!this.budget.tryAcquire()) {
+							return Mono.<T>empty();
+						}
+						log.debug("No response for {} after {} ms, sending a hedged request", operation,
+								delay.toMillis());
+						return timed(tracker, call);
+					});
+			// Neither attempt produced a value: the first attempt's outcome is the call's,
+			// retrying it is the retry policy's job
+			return Mono.firstWithValue(first, hedged)
+					.onErrorResume(NoSuchElementException.class, ex -> firstError.get() != null
+							? Mono.error(firstError.get()) : Mono.empty());
+		});
+	}
+
+	private Duration hedgeDelay(LatencyTracker tracker) {
+		OptionalLong percentile = tracker.percentile(this.properties.getPercentile(),
+				this.properties.getMinSamples());
+		if (percentile.isEmpty()) {
+			return this.properties.getDefaultDelay();
+		}
+		Duration delay = Duration.ofNanos(percentile.getAsLong());
+		if (delay.compareTo(this.properties.getMinDelay()) < 0) {
+			return this.properties.getMinDelay();
+		}
+		return delay.compareTo(this.properties.getMaxDelay()) > 0 ? this.properties.getMaxDelay() : delay;
+	}
+
+	private static <T> Mono<T> timed(LatencyTracker tracker, Supplier<Mono<T>> call) {
+		return Mono.defer(() -> {
+			long start = System.nanoTime();
+			return call.get().doOnSuccess(value -> tracker.record(System.nanoTime() - start));
+		});
+	}
+}
@@ -0,0 +1,77 @@
+package com.chawki.webclient.logs.webclient_logs.client;
+
+import java.time.Duration;
+import java.util.Map;
+import java.util.function.Consumer;
+
+import org.springframework.web.reactive.function.client.ClientRequest;
+import org.springframework.web.reactive.function.client.ClientResponse;
+import org.springframework.web.reactive.function.client.ExchangeFilterFunction;
+import org.springframework.web.reactive.function.client.ExchangeFunction;
+
+import reactor.core.publisher.Mono;
+import reactor.netty.http.client.HttpClientRequest;
+import reactor.util.context.Context;
+import reactor.util.context.ContextView;
+
+/**
+ * Per-request override of the client-wide timeouts. Callers opt in with
+ * {@code .attributes(RequestTimeoutFilter.responseTimeout(Duration.ofSeconds(30)))}, and likewise
+ * {@link #readTimeout(Duration)} and {@link #writeTimeout(Duration)}; requests without the
+ * attributes keep the {@code webclient.timeout.*} defaults.
+ * <p>
+ * The read and write timeouts are idle timeouts installed on the connection by the client's
+ * {@code doOnRequest}/{@code doOnResponse} hooks, which read the overrides from the exchange's
+ * Reactor {@code Context} through {@link #readTimeout(ContextView, Duration)} and
+ * {@link #writeTimeout(ContextView, Duration)}.
+ */
+public class RequestTimeoutFilter implements ExchangeFilterFunction {
+
+	public static final String RESPONSE_TIMEOUT_ATTRIBUTE = RequestTimeoutFilter.class.getName() + ".responseTimeout";
+	public static final String READ_TIMEOUT_ATTRIBUTE = RequestTimeoutFilter.class.getName() + ".readTimeout";
+	public static final String WRITE_TIMEOUT_ATTRIBUTE = RequestTimeoutFilter.class.getName() + ".writeTimeout";
+
+	public static Consumer<Map<String, Object>> responseTimeout(Duration timeout) {
+		return attributes -> attributes.put(RESPONSE_TIMEOUT_ATTRIBUTE, timeout);
+	}
+
+	public static Consumer<Map<String, Object>> readTimeout(Duration timeout) {
+		return attributes -> attributes.put(READ_TIMEOUT_ATTRIBUTE, timeout);
+	}
+
+	public static Consumer<Map<String, Object>> writeTimeout(Duration timeout) {
+		return attributes -> attributes.put(WRITE_TIMEOUT_ATTRIBUTE, timeout);
+	}
+
+	public static Duration readTimeout(ContextView context, Duration defaultTimeout) {
+		return context.getOrDefault(READ_TIMEOUT_ATTRIBUTE, defaultTimeout);
+	}
+
+	public static Duration writeTimeout(ContextView context, Duration defaultTimeout) {
+		return context.getOrDefault(WRITE_TIMEOUT_ATTRIBUTE, defaultTimeout);
+	}
+
+	@Override
+	public Mono<ClientResponse> filter(ClientRequest request, ExchangeFunction next) {
+		ClientRequest timedRequest = request;
+		if (request.attributes().get(RESPONSE_TIMEOUT_ATTRIBUTE) instanceof Duration timeout) {
+			// Applied on the Reactor Netty request itself, so it replaces the client default instead of racing it
+			timedRequest = ClientRequest.from(request)
+					.httpRequest(httpRequest -> {
+						if (httpRequest.getNativeRequest() instanceof HttpClientRequest reactorRequest) {
+							reactorRequest.responseTimeout(timeout);
+						}
+					})
+					.build();
+		}
+		Context overrides = Context.empty();
+		if (request.attributes().get(READ_TIMEOUT_ATTRIBUTE) instanceof Duration timeout) {
+			overrides = overrides.put(READ_TIMEOUT_ATTRIBUTE, timeout);
+		}
+		if (request.attributes().get(WRITE_TIMEOUT_ATTRIBUTE) instanceof Duration timeout) {
+			overrides = overrides.put(WRITE_TIMEOUT_ATTRIBUTE, timeout);
+		}
+		Mono<ClientResponse> response = next.exchange(timedRequest);
+		return overrides.isEmpty() ? response : response.contextWrite(overrides);
+	}
+}
@@ -0,0 +1,84 @@
+package com.chawki.webclient.logs.webclient_logs.client;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.LongSupplier;
+
+import com.chawki.webclient.logs.webclient_logs.config.WebClientRetryProperties;
+
+/**
+ * Token bucket that caps retries as a share of the traffic. Every call deposits
+ * {@code ratio} of a token, every retry withdraws a whole one, and {@code minRetriesPerSecond}
+ * tokens trickle in over time. When the upstream is failing broadly the bucket drains and
+ * retries stop, instead of multiplying the load on it. {@link RequestHedger} caps hedged
+ * requests with the same bucket.
+ * <p>
+ * Balances are kept in thousandths of a token so fractional deposits stay lock-free.
+ */
+public class RetryBudget {
+
+	private static final long SCALE = 1000;
+
+	private final long depositPerCall;
+	private final long maxBalance;
+	private final double refillPerNano;
+	private final LongSupplier nanoClock;
+
+	private final AtomicLong balance;
+	private final AtomicLong lastRefill;
+
+	public RetryBudget(WebClientRetryProperties.Budget properties) {
+		this(properties.getRatio(), properties.getMinRetriesPerSecond(), properties.getMaxBalance());
+	}
+
+	public RetryBudget(double ratio, int minPerSecond, int maxBalance) {
+		this(ratio, minPerSecond, maxBalance, System::nanoTime);
+	}
+
+	RetryBudget(double ratio, int minPerSecond, int maxBalance, LongSupplier nanoClock) {
+		this.depositPerCall = Math.round(ratio * SCALE);
+		this.maxBalance = Math.max(1, maxBalance) * SCALE;
+		this.refillPerNano = minPerSecond * SCALE / 1e9;
+		this.nanoClock = nanoClock;
+		// Start with one second worth of tokens rather than empty
+		this.balance = new AtomicLong(Math.min(this.maxBalance, minPerSecond * SCALE));
+		this.lastRefill = new AtomicLong(nanoClock.getAsLong());
+	}
+
+	public void onCall() {
+		deposit(this.depositPerCall);
+	}
+
+	/**
+	 * @return true when a retry (or hedge) may be sent, the token is then spent
+	 */
+	public boolean tryAcquire() {
+		refill();
+		long current;
+		do {
+			current = this.balance.get();
+			if (current < SCALE) {
+				return false;
+			}
+		}
+		while (!this.balance.compareAndSet(current, current - SCALE));
+		return true;
+	}
+
+	public double getBalance() {
+		return (double) this.balance.get() / SCALE;
+	}
+
+	private void refill() {
+		long now = this.nanoClock.getAsLong();
+		long last = this.lastRefill.get();
+		long earned = (long) ((now - last) * this.refillPerNano);
+		// Only the thread that moves the refill mark credits the elapsed time
+		if (earned > 0 && this.lastRefill.compareAndSet(last, now)) {
+			deposit(earned);
+		}
+	}
+
+	private void deposit(long amount) {
+		this.balance.accumulateAndGet(amount, (current, delta) -> Math.min(this.maxBalance, current + delta));
+	}
+}
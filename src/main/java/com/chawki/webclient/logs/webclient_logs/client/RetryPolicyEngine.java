@@ -0,0 +1,155 @@
+package com.chawki.webclient.logs.webclient_logs.client;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.ThreadLocalRandom;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpStatus;
+import org.springframework.util.ClassUtils;
+import org.springframework.web.reactive.function.client.WebClientResponseException;
+
+import com.chawki.webclient.logs.webclient_logs.config.WebClientRetryProperties;
+import com.chawki.webclient.logs.webclient_logs.exception.BulkheadFullException;
+import com.chawki.webclient.logs.webclient_logs.exception.CircuitBreakerOpenException;
+
+import reactor.core.publisher.Mono;
+import reactor.util.retry.Retry;
+
+/**
+ * Single retry policy for WebClient calls, applied with {@code retryWhen(engine.retryFor(method))}.
+ * <p>
+ * A failure is retried when its status or exception is configured as retryable, attempts are
+ * left, the method is idempotent (unless non-idempotent retries are enabled) and the
+ * {@link RetryBudget} still has a token. Delays use full jitter: uniformly drawn between zero
+ * and the exponential bound, so clients that failed together do not retry together.
+ * Throttled calls (429, or 503 with Retry-After) wait for the delay the upstream asked for
+ * instead, and are not retried when it exceeds the configured max cooldown.
+ * Exhausted retries propagate the last failure unchanged.
+ */
+public class RetryPolicyEngine {
+
+	private static final Logger log = LoggerFactory.getLogger(RetryPolicyEngine.class);
+
+	private static final Set<HttpMethod> IDEMPOTENT_METHODS = Set.of(HttpMethod.GET, HttpMethod.HEAD,
+			HttpMethod.OPTIONS, HttpMethod.TRACE, HttpMethod.PUT, HttpMethod.DELETE);
+
+	private final int maxRetries;
+	private final boolean retryNonIdempotent;
+	private final long initialIntervalMillis;
+	private final long maxIntervalMillis;
+	private final double multiplier;
+	private final Set<Integer> retryOnStatus;
+	private final List<Class<?>> retryOnExceptions;
+	private final RetryBudget budget;
+	private final HostCooldownRegistry cooldowns;
+	private final WebClientRetryProperties.RateLimit rateLimit;
+
+	public RetryPolicyEngine(WebClientRetryProperties properties, HostCooldownRegistry cooldowns) {
+		this.maxRetries = Math.max(0, properties.getMaxAttempts() - 1);
+		this.retryNonIdempotent = properties.isRetryNonIdempotent();
+		this.initialIntervalMillis = properties.getBackoff().getInitialInterval().toMillis();
+		this.maxIntervalMillis = properties.getBackoff().getMaxInterval().toMillis();
+		this.multiplier = Math.max(1.0, properties.getBackoff().getMultiplier());
+		this.retryOnStatus = new HashSet<>(properties.getRetryOnStatus());
+		this.retryOnExceptions = resolveExceptions(properties.getRetryOnExceptions());
+		this.budget = properties.getBudget().isEnabled() ? new RetryBudget(properties.getBudget()) : null;
+		this.cooldowns = cooldowns;
+		this.rateLimit = properties.getRateLimit();
+	}
+
+	/**
+	 * A fresh {@link Retry} for one call: each subscription counts as one call for the budget.
+	 */
+	public Retry retryFor(HttpMethod method) {
+		boolean methodRetryable = this.retryNonIdempotent || IDEMPOTENT_METHODS.contains(method);
+		return Retry.from(signals -> {
+			if (this.budget != null) {
+				this.budget.onCall();
+			}
+			return signals.concatMap(signal -> {
+				Throwable failure = signal.failure();
+				if (!methodRetryable || signal.totalRetries() >= this.maxRetries || !isRetryable(failure)) {
+					return Mono.error(failure);
+				}
+				Duration delay = throttledDelay(failure);
+				if (delay != null && delay.compareTo(this.rateLimit.getMaxCooldown()) > 0) {
+					log.warn("Not retrying {}: upstream asked to wait {} ms", method, delay.toMillis());
+					return Mono.error(failure);
+				}
+				if (this.budget != null && !this.budget.tryAcquire()) {
+					log.warn("Retry budget exhausted, not retrying {}: {}", method, failure.toString());
+					return Mono.error(failure);
+				}
+				delay = delay != null ? HostCooldownRegistry.withJitter(delay) : backoff(signal.totalRetries());
+				log.debug("Retrying {} in {} ms (retry {}/{}) after: {}", method, delay.toMillis(),
+						signal.totalRetries() + 1, this.maxRetries, failure.toString());
+				return Mono.delay(delay);
+			});
+		});
+	}
+
+	public boolean isRetryable(Throwable failure) {
+		// Rejected locally by the resilience filter: retrying would only add load
+		if (failure instanceof CircuitBreakerOpenException || failure instanceof BulkheadFullException) {
+			return false;
+		}
+		if (failure instanceof WebClientResponseException responseException) {
+			return this.retryOnStatus.contains(responseException.getStatusCode().value());
+		}
+		// Transport errors arrive wrapped (e.g. in WebClientRequestException): look through the causes
+		for (Throwable current = failure; current != null; current = current.getCause()) {
+			for (Class<?> type : this.retryOnExceptions) {
+				if (type.isInstance(current)) {
+					return true;
+				}
+			}
+			if (current.getCause() == current) {
+				break;
+			}
+		}
+		return false;
+	}
+
+	// Delay requested by a throttling upstream, null when the failure is not throttling
+	private Duration throttledDelay(Throwable failure) {
+		if (!this.rateLimit.isEnabled() || !(failure instanceof WebClientResponseException responseException)) {
+			return null;
+		}
+		int status = responseException.getStatusCode().value();
+		Optional<Duration> retryAfter = this.cooldowns.retryAfter(responseException.getHeaders());
+		if (status == HttpStatus.TOO_MANY_REQUESTS.value()) {
+			return retryAfter.orElse(this.rateLimit.getDefaultCooldown());
+		}
+		return status == HttpStatus.SERVICE_UNAVAILABLE.value() ? retryAfter.orElse(null) : null;
+	}
+
+	Duration backoff(long retry) {
+		double bound = Math.min(this.maxIntervalMillis, this.initialIntervalMillis * Math.pow(this.multiplier, retry));
+		return Duration.ofMillis(ThreadLocalRandom.current().nextLong((long) bound + 1));
+	}
+
+	private static List<Class<?>> resolveExceptions(List<String> classNames) {
+		List<Class<?>> types = new ArrayList<>();
+		for (String className : classNames) {
+			try {
+				Class<?> type = ClassUtils.forName(className, RetryPolicyEngine.class.getClassLoader());
+				if (Throwable.class.isAssignableFrom(type)) {
+					types.add(type);
+				} else {
+					log.warn("Ignoring retry-on-exceptions entry {}: not a Throwable", className);
+				}
+			}
+			catch (ClassNotFoundException | LinkageError ex) {
+				log.warn("Ignoring retry-on-exceptions entry {}: class not found", className);
+			}
+		}
+		return types;
+	}
+}
@@ -0,0 +1,55 @@
+package com.chawki.webclient.logs.webclient_logs.client;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Supplier;
+
+import org.springframework.http.HttpMethod;
+import org.springframework.util.Assert;
+
+import reactor.core.publisher.Mono;
+
+/**
+ * Coalesces concurrent identical reads: callers asking for the same method and URI while a
+ * call is in flight subscribe to that call instead of sending their own. The entry is removed
+ * as soon as the call terminates (or every caller cancelled), so results are never served
+ * beyond the lifetime of the call: this is not a cache.
+ * <p>
+ * The decoded value is shared by all callers and must be treated as read-only.
+ */
+public class SingleFlight {
+
+	private final Map<String, Flight<?>> inFlight = new ConcurrentHashMap<>();
+
+	/**
+	 * @param uri the expanded URI, query included: it is the key together with the method
+	 * @param call the whole call, retries included, so that callers share those too
+	 */
+	public <T> Mono<T> execute(HttpMethod method, String uri, Supplier<Mono<T>> call) {
+		Assert.isTrue(HttpMethod.GET.equals(method) || HttpMethod.HEAD.equals(method),
+				"Only GET and HEAD calls can be coalesced");
+		String key = method.name() + " " + uri;
+		return Mono.defer(() -> {
+			@SuppressWarnings("unchecked")
+			Flight<T> flight = (Flight<T>) this.inFlight.computeIfAbsent(key, k -> new Flight<>(k, call));
+			return flight.result;
+		});
+	}
+
+	public int getInFlightCount() {
+		return this.inFlight.size();
+	}
+
+	private final class Flight<T> {
+
+		private final Mono<T> result;
+
+		Flight(String key, Supplier<Mono<T>> call) {
+			// share() runs the call once for all subscribers and cancels it when all of them cancel;
+			// a caller that picked this flight just before removal still gets its cached result
+			this.result = Mono.defer(call)
+					.doFinally(signal -> inFlight.remove(key, this))
+					.share();
+		}
+	}
+}
@@ -0,0 +1,93 @@
+package com.chawki.webclient.logs.webclient_logs.client;
+
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+
+/**
+ * Last validators ({@code ETag}, {@code Last-Modified}) and decoded body seen for each URL,
+ * so that a {@code 304 Not Modified} can be answered locally. Bounded both in entries and in
+ * total body bytes, least recently used entries go first; the lock only guards map operations,
+ * never I/O.
+ */
+public class ValidatorStore {
+
+	private final int maxEntries;
+	private final long maxBytes;
+	private final Map<String, Entry> entries = new LinkedHashMap<>(16, 0.75f, true);
+	private long bytes;
+
+	public ValidatorStore(int maxEntries, long maxBytes) {
+		this.maxEntries = maxEntries;
+		this.maxBytes = maxBytes;
+	}
+
+	public synchronized Entry get(String url) {
+		return this.entries.get(url);
+	}
+
+	/**
+	 * Entries whose body alone exceeds the byte bound are not stored, and replace nothing.
+	 */
+	public synchronized void put(String url, Entry entry) {
+		if (entry.body().length > this.maxBytes) {
+			remove(url);
+			return;
+		}
+		Entry previous = this.entries.put(url, entry);
+		this.bytes += entry.body().length - (previous != null ? previous.body().length : 0);
+		// Access order: the head is the least recently used entry
+		Iterator<Entry> eldest = this.entries.values().iterator();
+		while ((this.entries.size() > this.maxEntries || this.bytes > this.maxBytes) && eldest.hasNext()) {
+			this.bytes -= eldest.next().body().length;
+			eldest.remove();
+		}
+	}
+
+	public synchronized void remove(String url) {
+		Entry removed = this.entries.remove(url);
+		if (removed != null) {
+			this.bytes -= removed.body().length;
+		}
+	}
+
+	public synchronized int size() {
+		return this.entries.size();
+	}
+
+	public synchronized long getTotalBytes() {
+		return this.bytes;
+	}
+
+	/**
+	 * @param lastModified kept as received: it is sent back verbatim in If-Modified-Since
+	 * @param varyValues values the request had for each header named in the response's
+	 * {@code Vary}: the entry only stands for requests with the same values
+	 */
+	public record Entry(String etag, String lastModified, MediaType contentType, byte[] body,
+			Map<String, List<String>> varyValues) {
+
+		boolean matches(HttpHeaders requestHeaders) {
+			for (Map.Entry<String, List<String>> vary : this.varyValues.entrySet()) {
+				if (!Objects.equals(vary.getValue(), requestHeaders.get(vary.getKey()))) {
+					return false;
+				}
+			}
+			return true;
+		}
+
+		Entry withValidators(String newEtag, String newLastModified) {
+			String etag = newEtag != null ? newEtag : this.etag;
+			String lastModified = newLastModified != null ? newLastModified : this.lastModified;
+			if (Objects.equals(etag, this.etag) && Objects.equals(lastModified, this.lastModified)) {
+				return this;
+			}
+			return new Entry(etag, lastModified, this.contentType, this.body, this.varyValues);
+		}
+	}
+}
@@ -0,0 +1,211 @@
+package com.chawki.webclient.logs.webclient_logs.config;
+
+import java.util.List;
+
+import com.chawki.webclient.logs.webclient_logs.logging.HeaderMaskingPolicy;
+import com.chawki.webclient.logs.webclient_logs.logging.OverflowPolicy;
+import com.chawki.webclient.logs.webclient_logs.logging.RouteMatcher;
+import com.chawki.webclient.logs.webclient_logs.logging.SamplingMode;
+
+/**
+ * Immutable snapshot of the runtime-adjustable WebClient logging settings.
+ * A new instance is swapped in atomically on every change, so a reader that grabs
+ * the snapshot once sees one consistent set of values for the whole exchange.
+ */
+public record LoggingSettings(
+        boolean enabled,
+        boolean includeHeaders,
+        boolean includeBody,
+        int maxBodySize,
+        boolean includeParameters,
+        boolean maskSensitiveData,
+        List<String> maskedHeaders,
+        List<String> maskedHeaderPatterns,
+        HeaderMaskingPolicy headerMaskingPolicy,
+        OverflowPolicy overflowPolicy,
+        int overflowSampleRate,
+        SamplingMode samplingMode,
+        double sampleRate,
+        int rateLimitPerSecond,
+        boolean alwaysLogErrorsAndSlow,
+        long slowThresholdMs,
+        List<RouteLoggingPolicy> routes,
+        RouteMatcher routeMatcher,
+        boolean wiretap,
+        int wiretapMaxBytes) {
+
+    public LoggingSettings {
+        maskedHeaders = List.copyOf(maskedHeaders);
+        maskedHeaderPatterns = List.copyOf(maskedHeaderPatterns);
+        routes = List.copyOf(routes);
+    }
+
+    public static LoggingSettings defaults() {
+        return new Builder().build();
+    }
+
+    /**
+     * Masking policy to apply, or {@code null} when masking is switched off.
+     */
+    public HeaderMaskingPolicy activeMaskingPolicy() {
+        return maskSensitiveData ? headerMaskingPolicy : null;
+    }
+
+    public Builder toBuilder() {
+        return new Builder(this);
+    }
+
+    public static final class Builder {
+
+        private boolean enabled = true;
+        private boolean includeHeaders = true;
+        private boolean includeBody = true;
+        private int maxBodySize = 1000;
+        private boolean includeParameters = true;
+        private boolean maskSensitiveData = true;
+        private List<String> maskedHeaders = HeaderMaskingPolicy.DEFAULT_MASKED_HEADERS;
+        private List<String> maskedHeaderPatterns = HeaderMaskingPolicy.DEFAULT_MASKED_HEADER_PATTERNS;
+        private HeaderMaskingPolicy headerMaskingPolicy = HeaderMaskingPolicy.defaults();
+        private OverflowPolicy overflowPolicy = OverflowPolicy.DROP;
+        private int overflowSampleRate = 10;
+        private SamplingMode samplingMode = SamplingMode.ALL;
+        private double sampleRate = 0.01;
+        private int rateLimitPerSecond = 50;
+        private boolean alwaysLogErrorsAndSlow = true;
+        private long slowThresholdMs = 2000;
+        private List<RouteLoggingPolicy> routes = List.of();
+        private RouteMatcher routeMatcher = RouteMatcher.compile(List.of());
+        private boolean wiretap = false;
+        private int wiretapMaxBytes = 256;
+
+        private Builder() {
+        }
+
+        private Builder(LoggingSettings settings) {
+            this.enabled = settings.enabled;
+            this.includeHeaders = settings.includeHeaders;
+            this.includeBody = settings.includeBody;
+            this.maxBodySize = settings.maxBodySize;
+            this.includeParameters = settings.includeParameters;
+            this.maskSensitiveData = settings.maskSensitiveData;
+            this.maskedHeaders = settings.maskedHeaders;
+            this.maskedHeaderPatterns = settings.maskedHeaderPatterns;
+            this.headerMaskingPolicy = settings.headerMaskingPolicy;
+            this.overflowPolicy = settings.overflowPolicy;
+            this.overflowSampleRate = settings.overflowSampleRate;
+            this.samplingMode = settings.samplingMode;
+            this.sampleRate = settings.sampleRate;
+            this.rateLimitPerSecond = settings.rateLimitPerSecond;
+            this.alwaysLogErrorsAndSlow = settings.alwaysLogErrorsAndSlow;
+            this.slowThresholdMs = settings.slowThresholdMs;
+            this.routes = settings.routes;
+            this.routeMatcher = settings.routeMatcher;
+            this.wiretap = settings.wiretap;
+            this.wiretapMaxBytes = settings.wiretapMaxBytes;
+        }
+
+        public Builder enabled(boolean enabled) {
+            this.enabled = enabled;
+            return this;
+        }
+
+        public Builder includeHeaders(boolean includeHeaders) {
+            this.includeHeaders = includeHeaders;
+            return this;
+        }
+
+        public Builder includeBody(boolean includeBody) {
+            this.includeBody = includeBody;
+            return this;
+        }
+
+        public Builder maxBodySize(int maxBodySize) {
+            this.maxBodySize = maxBodySize;
+            return this;
+        }
+
+        public Builder includeParameters(boolean includeParameters) {
+            this.includeParameters = includeParameters;
+            return this;
+        }
+
+        public Builder maskSensitiveData(boolean maskSensitiveData) {
+            this.maskSensitiveData = maskSensitiveData;
+            return this;
+        }
+
+        public Builder maskedHeaders(List<String> maskedHeaders) {
+            this.maskedHeaders = maskedHeaders;
+            this.headerMaskingPolicy = null;
+            return this;
+        }
+
+        public Builder maskedHeaderPatterns(List<String> maskedHeaderPatterns) {
+            this.maskedHeaderPatterns = maskedHeaderPatterns;
+            this.headerMaskingPolicy = null;
+            return this;
+        }
+
+        public Builder overflowPolicy(OverflowPolicy overflowPolicy) {
+            this.overflowPolicy = overflowPolicy;
+            return this;
+        }
+
+        public Builder overflowSampleRate(int overflowSampleRate) {
+            this.overflowSampleRate = overflowSampleRate;
+            return this;
+        }
+
+        public Builder samplingMode(SamplingMode samplingMode) {
+            this.samplingMode = samplingMode;
+            return this;
+        }
+
+        public Builder sampleRate(double sampleRate) {
+            this.sampleRate = sampleRate;
+            return this;
+        }
+
+        public Builder rateLimitPerSecond(int rateLimitPerSecond) {
+            this.rateLimitPerSecond = rateLimitPerSecond;
+            return this;
+        }
+
+        public Builder alwaysLogErrorsAndSlow(boolean alwaysLogErrorsAndSlow) {
+            this.alwaysLogErrorsAndSlow = alwaysLogErrorsAndSlow;
+            return this;
+        }
+
+        public Builder slowThresholdMs(long slowThresholdMs) {
+            this.slowThresholdMs = slowThresholdMs;
+            return this;
+        }
+
+        public Builder routes(List<RouteLoggingPolicy> routes) {
+            this.routes = routes;
+            this.routeMatcher = null;
+            return this;
+        }
+
+        public Builder wiretap(boolean wiretap) {
+            this.wiretap = wiretap;
+            return this;
+        }
+
+        public Builder wiretapMaxBytes(int wiretapMaxBytes) {
+            this.wiretapMaxBytes = wiretapMaxBytes;
+            return this;
+        }
+
+        public LoggingSettings build() {
+            // The masking policy and the route trie are only recompiled when their input changed
+            HeaderMaskingPolicy policy = headerMaskingPolicy != null ? headerMaskingPolicy
+                    : HeaderMaskingPolicy.compile(maskedHeaders, maskedHeaderPatterns);
+            RouteMatcher matcher = routeMatcher != null ? routeMatcher : RouteMatcher.compile(routes);
+            return new LoggingSettings(enabled, includeHeaders, includeBody, maxBodySize, includeParameters,
+                    maskSensitiveData, maskedHeaders, maskedHeaderPatterns, policy, overflowPolicy,
+                    overflowSampleRate, samplingMode, sampleRate, rateLimitPerSecond, alwaysLogErrorsAndSlow,
+                    slowThresholdMs, routes, matcher, wiretap, wiretapMaxBytes);
+        }
+    }
+}
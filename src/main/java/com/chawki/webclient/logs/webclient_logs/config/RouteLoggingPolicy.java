@@ -0,0 +1,43 @@
+package com.chawki.webclient.logs.webclient_logs.config;
+
+import com.chawki.webclient.logs.webclient_logs.logging.SamplingMode;
+
+/**
+ * Logging override for the requests matching {@code host} (any host when blank or
+ * {@code "*"}) and the Ant-style {@code pathPattern}. Only the non-null values
+ * override the global {@link LoggingSettings}.
+ */
+public record RouteLoggingPolicy(
+        String id,
+        String host,
+        String pathPattern,
+        Boolean enabled,
+        Boolean includeBody,
+        Boolean includeHeaders,
+        Integer maxBodySize,
+        SamplingMode samplingMode,
+        Double sampleRate) {
+
+    public LoggingSettings applyTo(LoggingSettings settings) {
+        LoggingSettings.Builder builder = settings.toBuilder();
+        if (enabled != null) {
+            builder.enabled(enabled);
+        }
+        if (includeBody != null) {
+            builder.includeBody(includeBody);
+        }
+        if (includeHeaders != null) {
+            builder.includeHeaders(includeHeaders);
+        }
+        if (maxBodySize != null) {
+            builder.maxBodySize(maxBodySize);
+        }
+        if (samplingMode != null) {
+            builder.samplingMode(samplingMode);
+        }
+        if (sampleRate != null) {
+            builder.sampleRate(sampleRate);
+        }
+        return builder.build();
+    }
+}
@@ -0,0 +1,172 @@
+package com.chawki.webclient.logs.webclient_logs.config;
+
+import java.time.Duration;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+/**
+ * Batch lookups of users by id, see {@code UserService.getUsersByIds}, bulk calls (listing
+ * every user included) and aggregation of user creations into bulk writes.
+ */
+@Component
+@ConfigurationProperties(prefix = "webclient.batch")
+public class WebClientBatchProperties {
+
+    // Single-id lookups in flight at once for one batch
+    private int concurrency = 8;
+    // Upstream endpoint answering several ids at once (e.g. /users?id=1&id=2); unset to fan out instead
+    private String bulkPath;
+    private String bulkIdParameter = "id";
+    // Larger batches are split, keeping the query string within upstream URL limits
+    private int maxIdsPerBulkRequest = 50;
+    private int maxIds = 500;
+    // Listing or bulk-fetching users is slow: more than the client-wide response timeout
+    private Duration bulkResponseTimeout = Duration.ofSeconds(30);
+    private Create create = new Create();
+
+    public int getConcurrency() {
+        return concurrency;
+    }
+
+    public void setConcurrency(int concurrency) {
+        this.concurrency = concurrency;
+    }
+
+    public String getBulkPath() {
+        return bulkPath;
+    }
+
+    public void setBulkPath(String bulkPath) {
+        this.bulkPath = bulkPath;
+    }
+
+    public String getBulkIdParameter() {
+        return bulkIdParameter;
+    }
+
+    public void setBulkIdParameter(String bulkIdParameter) {
+        this.bulkIdParameter = bulkIdParameter;
+    }
+
+    public int getMaxIdsPerBulkRequest() {
+        return maxIdsPerBulkRequest;
+    }
+
+    public void setMaxIdsPerBulkRequest(int maxIdsPerBulkRequest) {
+        this.maxIdsPerBulkRequest = maxIdsPerBulkRequest;
+    }
+
+    public int getMaxIds() {
+        return maxIds;
+    }
+
+    public void setMaxIds(int maxIds) {
+        this.maxIds = maxIds;
+    }
+
+    public Duration getBulkResponseTimeout() {
+        return bulkResponseTimeout;
+    }
+
+    public void setBulkResponseTimeout(Duration bulkResponseTimeout) {
+        this.bulkResponseTimeout = bulkResponseTimeout;
+    }
+
+    public Create getCreate() {
+        return create;
+    }
+
+    public void setCreate(Create create) {
+        this.create = create;
+    }
+
+    @Override
+    public String toString() {
+        return "WebClientBatchProperties{" +
+                "concurrency=" + concurrency +
+                ", bulkPath='" + bulkPath + '\'' +
+                ", bulkIdParameter='" + bulkIdParameter + '\'' +
+                ", maxIdsPerBulkRequest=" + maxIdsPerBulkRequest +
+                ", maxIds=" + maxIds +
+                ", bulkResponseTimeout=" + bulkResponseTimeout +
+                ", create=" + create +
+                '}';
+    }
+
+    public static class Create {
+
+        // Queue createUser calls and send them together; off, each call is its own POST
+        private boolean enabled = false;
+        // Upstream endpoint taking a JSON array of users and answering them in the same order;
+        // unset to send queued creations one by one
+        private String bulkPath;
+        private int maxBatchSize = 50;
+        // Longest a creation waits for others to join its batch
+        private Duration maxWait = Duration.ofMillis(20);
+        // Calls in flight at once, bulk or single
+        private int concurrency = 4;
+        // Creations waiting for a free call; past it, createUser fails at once with a 503
+        private int maxQueued = 1000;
+
+        public boolean isEnabled() {
+            return enabled;
+        }
+
+        public void setEnabled(boolean enabled) {
+            this.enabled = enabled;
+        }
+
+        public String getBulkPath() {
+            return bulkPath;
+        }
+
+        public void setBulkPath(String bulkPath) {
+            this.bulkPath = bulkPath;
+        }
+
+        public int getMaxBatchSize() {
+            return maxBatchSize;
+        }
+
+        public void setMaxBatchSize(int maxBatchSize) {
+            this.maxBatchSize = maxBatchSize;
+        }
+
+        public Duration getMaxWait() {
+            return maxWait;
+        }
+
+        public void setMaxWait(Duration maxWait) {
+            this.maxWait = maxWait;
+        }
+
+        public int getConcurrency() {
+            return concurrency;
+        }
+
+        public void setConcurrency(int concurrency) {
+            this.concurrency = concurrency;
+        }
+
+        public int getMaxQueued() {
+            return maxQueued;
+        }
+
+        public void setMaxQueued(int maxQueued) {
+            this.maxQueued = maxQueued;
+        }
+
+        @Override
+        public String toString() {
+            return "Create{" +
+                    "enabled=" + enabled +
+                    ", bulkPath='" + bulkPath + '\'' +
+                    ", maxBatchSize=" + maxBatchSize +
+                    ", maxWait=" + maxWait +
+                    ", concurrency=" + concurrency +
+                    ", maxQueued=" + maxQueued +
+                    '}';
+        }
+    }
+}
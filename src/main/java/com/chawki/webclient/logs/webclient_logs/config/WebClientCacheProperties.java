@@ -0,0 +1,64 @@
+package com.chawki.webclient.logs.webclient_logs.config;
+
+import java.time.Duration;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+/**
+ * Read-through caches in front of the user lookups, read once when the caches are built.
+ */
+@Component
+@ConfigurationProperties(prefix = "webclient.cache")
+public class WebClientCacheProperties {
+
+    private boolean enabled = true;
+    // Served without calling the upstream
+    private Duration ttl = Duration.ofSeconds(60);
+    // After the ttl, served while a background call refreshes the entry
+    private Duration staleWhileRevalidate = Duration.ofMinutes(5);
+    // Per cache, in users: a cached list weighs its size
+    private long maxWeight = 10_000;
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    public void setEnabled(boolean enabled) {
+        this.enabled = enabled;
+    }
+
+    public Duration getTtl() {
+        return ttl;
+    }
+
+    public void setTtl(Duration ttl) {
+        this.ttl = ttl;
+    }
+
+    public Duration getStaleWhileRevalidate() {
+        return staleWhileRevalidate;
+    }
+
+    public void setStaleWhileRevalidate(Duration staleWhileRevalidate) {
+        this.staleWhileRevalidate = staleWhileRevalidate;
+    }
+
+    public long getMaxWeight() {
+        return maxWeight;
+    }
+
+    public void setMaxWeight(long maxWeight) {
+        this.maxWeight = maxWeight;
+    }
+
+    @Override
+    public String toString() {
+        return "WebClientCacheProperties{" +
+                "enabled=" + enabled +
+                ", ttl=" + ttl +
+                ", staleWhileRevalidate=" + staleWhileRevalidate +
+                ", maxWeight=" + maxWeight +
+                '}';
+    }
+}
@@ -0,0 +1,51 @@
+package com.chawki.webclient.logs.webclient_logs.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+/**
+ * Content-Encoding negotiation of the WebClient, read once when the client is built.
+ */
+@Component
+@ConfigurationProperties(prefix = "webclient.compression")
+public class WebClientCompressionProperties {
+
+    // Send Accept-Encoding and decompress responses while they stream in
+    private boolean responseEnabled = false;
+    // Gzip outbound bodies of at least requestMinSize bytes; the upstream must accept Content-Encoding
+    private boolean requestEnabled = false;
+    private int requestMinSize = 2048;
+
+    public boolean isResponseEnabled() {
+        return responseEnabled;
+    }
+
+    public void setResponseEnabled(boolean responseEnabled) {
+        this.responseEnabled = responseEnabled;
+    }
+
+    public boolean isRequestEnabled() {
+        return requestEnabled;
+    }
+
+    public void setRequestEnabled(boolean requestEnabled) {
+        this.requestEnabled = requestEnabled;
+    }
+
+    public int getRequestMinSize() {
+        return requestMinSize;
+    }
+
+    public void setRequestMinSize(int requestMinSize) {
+        this.requestMinSize = requestMinSize;
+    }
+
+    @Override
+    public String toString() {
+        return "WebClientCompressionProperties{" +
+                "responseEnabled=" + responseEnabled +
+                ", requestEnabled=" + requestEnabled +
+                ", requestMinSize=" + requestMinSize +
+                '}';
+    }
+}
@@ -0,0 +1,62 @@
+package com.chawki.webclient.logs.webclient_logs.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+/**
+ * Conditional GETs (ETag / Last-Modified revalidation), read once when the filter is built.
+ */
+@Component
+@ConfigurationProperties(prefix = "webclient.conditional")
+public class WebClientConditionalProperties {
+
+    private boolean enabled = true;
+    // URLs whose validators and body are remembered, least recently used evicted first
+    private int maxEntries = 1000;
+    // Larger bodies are downloaded in full every time
+    private int maxBodySize = 1024 * 1024;
+    // Bodies held by the store in all; least recently used entries are evicted past it
+    private long maxTotalBytes = 16 * 1024 * 1024;
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    public void setEnabled(boolean enabled) {
+        this.enabled = enabled;
+    }
+
+    public int getMaxEntries() {
+        return maxEntries;
+    }
+
+    public void setMaxEntries(int maxEntries) {
+        this.maxEntries = maxEntries;
+    }
+
+    public int getMaxBodySize() {
+        return maxBodySize;
+    }
+
+    public void setMaxBodySize(int maxBodySize) {
+        this.maxBodySize = maxBodySize;
+    }
+
+    public long getMaxTotalBytes() {
+        return maxTotalBytes;
+    }
+
+    public void setMaxTotalBytes(long maxTotalBytes) {
+        this.maxTotalBytes = maxTotalBytes;
+    }
+
+    @Override
+    public String toString() {
+        return "WebClientConditionalProperties{" +
+                "enabled=" + enabled +
+                ", maxEntries=" + maxEntries +
+                ", maxBodySize=" + maxBodySize +
+                ", maxTotalBytes=" + maxTotalBytes +
+                '}';
+    }
+}
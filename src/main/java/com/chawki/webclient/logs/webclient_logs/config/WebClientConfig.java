@@ -1,16 +1,65 @@
 package com.chawki.webclient.logs.webclient_logs.config;
 
+import java.net.InetSocketAddress;
+import java.time.Duration;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.TimeUnit;
+import java.util.function.ToIntFunction;
+
+import jdk.net.ExtendedSocketOptions;
+
+import org.springframework.beans.factory.ObjectProvider;
 import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnMissingBean;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.http.client.reactive.ReactorClientHttpConnector;
+import org.springframework.web.reactive.function.client.ExchangeStrategies;
 import org.springframework.web.reactive.function.client.WebClient;
 
+import com.chawki.webclient.logs.webclient_logs.client.CircuitBreakerFilter;
+import com.chawki.webclient.logs.webclient_logs.client.ConditionalRequestFilter;
+import com.chawki.webclient.logs.webclient_logs.client.DnsResolverFactory;
+import com.chawki.webclient.logs.webclient_logs.client.HostCooldownFilter;
+import com.chawki.webclient.logs.webclient_logs.client.HostCooldownRegistry;
+import com.chawki.webclient.logs.webclient_logs.client.ReactiveCache;
+import com.chawki.webclient.logs.webclient_logs.client.RequestCompressionFilter;
+import com.chawki.webclient.logs.webclient_logs.client.RequestHedger;
+import com.chawki.webclient.logs.webclient_logs.client.RequestTimeoutFilter;
+import com.chawki.webclient.logs.webclient_logs.client.RetryPolicyEngine;
+import com.chawki.webclient.logs.webclient_logs.client.SingleFlight;
+import com.chawki.webclient.logs.webclient_logs.client.ValidatorStore;
+import com.chawki.webclient.logs.webclient_logs.dto.User;
+import com.chawki.webclient.logs.webclient_logs.logging.BoundedWiretapHandler;
+import com.chawki.webclient.logs.webclient_logs.logging.DefaultRequestIdGenerator;
+import com.chawki.webclient.logs.webclient_logs.logging.ExchangeLogSink;
+import com.chawki.webclient.logs.webclient_logs.logging.RequestIdGenerator;
 import com.chawki.webclient.logs.webclient_logs.logging.WebClientLoggingFilter;
+import com.chawki.webclient.logs.webclient_logs.logging.WireByteCounter;
 
-import io.netty.handler.logging.LogLevel;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Metrics;
+import io.netty.channel.ChannelOption;
+import io.netty.channel.ChannelPipeline;
+import io.netty.channel.epoll.Epoll;
+import io.netty.channel.epoll.EpollChannelOption;
+import io.netty.channel.socket.DatagramChannel;
+import io.netty.channel.socket.nio.NioChannelOption;
+import io.netty.handler.codec.compression.Brotli;
+import io.netty.handler.codec.http.HttpHeaderNames;
+import io.netty.handler.timeout.ReadTimeoutHandler;
+import io.netty.handler.timeout.WriteTimeoutHandler;
+import io.netty.resolver.AddressResolverGroup;
+import reactor.netty.NettyPipeline;
+import reactor.netty.http.HttpProtocol;
+import reactor.netty.http.HttpResources;
+import reactor.netty.http.client.Http2AllocationStrategy;
 import reactor.netty.http.client.HttpClient;
-import reactor.netty.transport.logging.AdvancedByteBufFormat;
+import reactor.netty.resources.ConnectionProvider;
+import reactor.core.scheduler.Schedulers;
+import reactor.netty.resources.LoopResources;
 
 @Configuration
 public class WebClientConfig {
@@ -24,26 +73,261 @@ public class WebClientConfig {
     @Value("${webclient.timeout.response:10000}")
     private int responseTimeout;
 
+    @Value("${webclient.timeout.read:${webclient.timeout.response:10000}}")
+    private int readTimeout;
+
+    @Value("${webclient.timeout.write:${webclient.timeout.response:10000}}")
+    private int writeTimeout;
+
     @Value("${webclient.max-in-memory-size:1048576}")
     private int maxInMemorySize;
 
+    // H2 is negotiated through ALPN on https and falls back to HTTP11 when listed;
+    // H2C with HTTP11 upgrades, H2C alone uses prior knowledge
+    @Value("${webclient.protocols:HTTP11}")
+    private HttpProtocol[] protocols;
+
     @Bean
-    public WebClient webClient(WebClientLoggingFilter loggingFilter) {
-        // Configure Netty HttpClient
-        HttpClient httpClient = HttpClient.create()
-        		.wiretap("reactor.netty.http.client.HttpClient", 
-                        LogLevel.DEBUG, 
-                        AdvancedByteBufFormat.TEXTUAL); // Enable Netty wire logging
+    public WebClient webClient(WebClientLoggingFilter loggingFilter, BoundedWiretapHandler wiretapHandler,
+                               ConnectionProvider webClientConnectionProvider,
+                               WebClientTransportProperties transport,
+                               WebClientCompressionProperties compression,
+                               Optional<ConditionalRequestFilter> conditionalRequestFilter,
+                               Optional<HostCooldownFilter> hostCooldownFilter,
+                               Optional<CircuitBreakerFilter> circuitBreakerFilter,
+                               Optional<LoopResources> webClientLoopResources,
+                               Optional<AddressResolverGroup<InetSocketAddress>> webClientAddressResolver) {
+        // Configure Netty HttpClient on its own pool rather than the shared default one
+        HttpClient httpClient = HttpClient.create(webClientConnectionProvider)
+                // Dedicated loops unless webclient.transport.share-server-loops is set
+                .runOn(webClientLoopResources.orElseGet(HttpResources::get), transport.isPreferNative())
+                .protocol(protocols)
+                // Accept-Encoding plus streaming decompression of the response body
+                .compress(compression.isResponseEnabled())
+                .headers(headers -> {
+                    if (compression.isResponseEnabled()) {
+                        // The decompressor handles all of these; br only when brotli4j is on the classpath
+                        headers.set(HttpHeaderNames.ACCEPT_ENCODING,
+                                Brotli.isAvailable() ? "gzip, deflate, br" : "gzip, deflate");
+                    }
+                })
+                .doOnChannelInit((observer, channel, remoteAddress) -> {
+                    // Wire logging is toggled through webclient.logging.wiretap; behind TLS so it sees plain text
+                    ChannelPipeline pipeline = channel.pipeline();
+                    if (pipeline.get(NettyPipeline.SslHandler) != null) {
+                        pipeline.addAfter(NettyPipeline.SslHandler, BoundedWiretapHandler.NAME, wiretapHandler);
+                    } else {
+                        pipeline.addFirst(BoundedWiretapHandler.NAME, wiretapHandler);
+                    }
+                })
+                .option(ChannelOption.CONNECT_TIMEOUT_MILLIS, connectionTimeout)
+                // Time to the response headers; RequestTimeoutFilter overrides it per request
+                .responseTimeout(Duration.ofMillis(responseTimeout))
+                // Idle handlers only live for the exchange: pooled connections are released without them.
+                // RequestTimeoutFilter overrides their timeouts per request.
+                .doOnRequest((request, connection) -> {
+                    Duration timeout = RequestTimeoutFilter.writeTimeout(request.currentContextView(),
+                            Duration.ofMillis(writeTimeout));
+                    connection.addHandlerLast(new WriteTimeoutHandler(timeout.toMillis(), TimeUnit.MILLISECONDS));
+                })
+                .doOnResponse((response, connection) -> {
+                    Duration timeout = RequestTimeoutFilter.readTimeout(response.currentContextView(),
+                            Duration.ofMillis(readTimeout));
+                    connection.addHandlerLast(new ReadTimeoutHandler(timeout.toMillis(), TimeUnit.MILLISECONDS));
+                    WireByteCounter.track(connection, response.currentContextView());
+                });
+        httpClient = applySocketOptions(httpClient, transport);
+        if (webClientAddressResolver.isPresent()) {
+            httpClient = httpClient.resolver(webClientAddressResolver.get());
+        }
+
+        ExchangeStrategies strategies = ExchangeStrategies.builder()
+                .codecs(codecs -> codecs.defaultCodecs().maxInMemorySize(maxInMemorySize))
+                .build();
 
-        return WebClient.builder()
+        WebClient.Builder builder = WebClient.builder()
                 .baseUrl(baseUrl)
                 .clientConnector(new ReactorClientHttpConnector(httpClient))
-                //.filter(loggingFilter) // Add custom logging filter
-                .build();
+                .exchangeStrategies(strategies)
+                .filter(new RequestTimeoutFilter());
+        // Filters wrap each other in registration order, the first one outermost
+        // A 304 answered from the store still counts as a success for the circuit breaker
+        conditionalRequestFilter.ifPresent(builder::filter);
+        // Waiting out a cooldown happens before the bulkhead, so paced calls hold no slot
+        hostCooldownFilter.ifPresent(builder::filter);
+        // Outside the logging filter: calls rejected by an open circuit or a full bulkhead fail
+        // without a network call and are not logged, and bulkhead queueing is not in the logged time
+        circuitBreakerFilter.ifPresent(builder::filter);
+        // Each attempt that goes out to the upstream is logged, retries and hedged calls included
+        builder.filter(loggingFilter);
+        if (compression.isRequestEnabled()) {
+            // Inside the logging filter, so request bodies are logged before being compressed
+            builder.filter(new RequestCompressionFilter(compression.getRequestMinSize()));
+        }
+        return builder.build();
+    }
+
+    private HttpClient applySocketOptions(HttpClient httpClient, WebClientTransportProperties transport) {
+        HttpClient configured = httpClient
+                .option(ChannelOption.TCP_NODELAY, transport.isTcpNoDelay())
+                .option(ChannelOption.SO_KEEPALIVE, transport.isKeepAlive());
+        if (!transport.isKeepAlive()) {
+            return configured;
+        }
+        int keepIdle = (int) transport.getKeepIdle().toSeconds();
+        int keepInterval = (int) transport.getKeepInterval().toSeconds();
+        if (transport.isPreferNative() && LoopResources.hasNativeSupport()) {
+            if (!Epoll.isAvailable()) {
+                // kqueue has no per-socket keep-alive tuning: the OS defaults apply
+                return configured;
+            }
+            return configured
+                    .option(EpollChannelOption.TCP_KEEPIDLE, keepIdle)
+                    .option(EpollChannelOption.TCP_KEEPINTVL, keepInterval)
+                    .option(EpollChannelOption.TCP_KEEPCNT, transport.getKeepCount());
+        }
+        return configured
+                .option(NioChannelOption.of(ExtendedSocketOptions.TCP_KEEPIDLE), keepIdle)
+                .option(NioChannelOption.of(ExtendedSocketOptions.TCP_KEEPINTERVAL), keepInterval)
+                .option(NioChannelOption.of(ExtendedSocketOptions.TCP_KEEPCOUNT), transport.getKeepCount());
+    }
+
+    @Bean(destroyMethod = "dispose")
+    @ConditionalOnProperty(prefix = "webclient.transport", name = "share-server-loops", havingValue = "false",
+            matchIfMissing = true)
+    public LoopResources webClientLoopResources(WebClientTransportProperties transport) {
+        return LoopResources.create(transport.getThreadPrefix(), transport.getWorkerThreads(), true);
+    }
+
+    @Bean(destroyMethod = "close")
+    @ConditionalOnProperty(prefix = "webclient.dns", name = "enabled", havingValue = "true", matchIfMissing = true)
+    public AddressResolverGroup<InetSocketAddress> webClientAddressResolver(
+            WebClientDnsProperties dns, WebClientTransportProperties transport,
+            Optional<LoopResources> webClientLoopResources, ObjectProvider<MeterRegistry> meterRegistry) {
+        // The resolver runs on the connecting channel's event loop, so its UDP channel must match that transport
+        LoopResources loops = webClientLoopResources.orElseGet(HttpResources::get);
+        Class<? extends DatagramChannel> datagramChannelType = loops.onChannelClass(DatagramChannel.class,
+                loops.onClient(transport.isPreferNative()));
+        return DnsResolverFactory.create(dns, datagramChannelType,
+                meterRegistry.getIfAvailable(() -> Metrics.globalRegistry));
+    }
+
+    // Closed gracefully on shutdown: in-flight exchanges get up to dispose-timeout to complete
+    @Bean(destroyMethod = "dispose")
+    public ConnectionProvider webClientConnectionProvider(WebClientPoolProperties pool) {
+        ConnectionProvider.Builder builder = ConnectionProvider.builder(pool.getName())
+                .maxConnections(pool.getMaxConnections())
+                .pendingAcquireMaxCount(pool.getPendingAcquireMaxCount())
+                .pendingAcquireTimeout(pool.getPendingAcquireTimeout())
+                .maxIdleTime(pool.getMaxIdleTime())
+                .maxLifeTime(pool.getMaxLifeTime())
+                .evictInBackground(pool.getEvictionInterval())
+                .metrics(pool.isMetricsEnabled())
+                .disposeTimeout(pool.getDisposeTimeout());
+        if (isHttp2Enabled()) {
+            // Streams, not connections, are leased: a connection is shared until max-concurrent-streams
+            builder.allocationStrategy(Http2AllocationStrategy.builder()
+                    .maxConnections(pool.getMaxConnections())
+                    .minConnections(pool.getMinConnections())
+                    .maxConcurrentStreams(pool.getMaxConcurrentStreams())
+                    .build());
+        }
+        if (pool.getLeasingStrategy() == WebClientPoolProperties.LeasingStrategy.LIFO) {
+            builder.lifo();
+        } else {
+            builder.fifo();
+        }
+        return builder.build();
+    }
+
+    private boolean isHttp2Enabled() {
+        for (HttpProtocol protocol : protocols) {
+            if (protocol == HttpProtocol.H2 || protocol == HttpProtocol.H2C) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    @Bean
+    @ConditionalOnProperty(prefix = "webclient.resilience", name = "enabled", havingValue = "true",
+            matchIfMissing = true)
+    public CircuitBreakerFilter circuitBreakerFilter(WebClientResilienceProperties resilience) {
+        return new CircuitBreakerFilter(resilience);
+    }
+
+    @Bean
+    @ConditionalOnProperty(prefix = "webclient.conditional", name = "enabled", havingValue = "true",
+            matchIfMissing = true)
+    public ConditionalRequestFilter conditionalRequestFilter(WebClientConditionalProperties conditional) {
+        return new ConditionalRequestFilter(new ValidatorStore(conditional.getMaxEntries(),
+                conditional.getMaxTotalBytes()), conditional.getMaxBodySize());
+    }
+
+    @Bean
+    public HostCooldownRegistry hostCooldownRegistry() {
+        return new HostCooldownRegistry();
+    }
+
+    @Bean
+    @ConditionalOnProperty(prefix = "webclient.retry.rate-limit", name = "enabled", havingValue = "true",
+            matchIfMissing = true)
+    public HostCooldownFilter hostCooldownFilter(HostCooldownRegistry hostCooldownRegistry,
+                                                 WebClientRetryProperties retry) {
+        return new HostCooldownFilter(hostCooldownRegistry, retry.getRateLimit());
+    }
+
+    @Bean
+    public RetryPolicyEngine retryPolicyEngine(WebClientRetryProperties retry,
+                                               HostCooldownRegistry hostCooldownRegistry) {
+        return new RetryPolicyEngine(retry, hostCooldownRegistry);
+    }
+
+    @Bean
+    public RequestHedger requestHedger(WebClientHedgingProperties hedging) {
+        return new RequestHedger(hedging);
+    }
+
+    @Bean
+    public SingleFlight singleFlight() {
+        return new SingleFlight();
+    }
+
+    @Bean
+    public ReactiveCache<Long, User> userByIdCache(WebClientCacheProperties cache,
+                                                   ObjectProvider<MeterRegistry> meterRegistry) {
+        return newCache("users", cache, user -> 1, meterRegistry);
+    }
+
+    @Bean
+    public ReactiveCache<String, List<User>> userListCache(WebClientCacheProperties cache,
+                                                           ObjectProvider<MeterRegistry> meterRegistry) {
+        return newCache("user-lists", cache, List::size, meterRegistry);
+    }
+
+    private <K, V> ReactiveCache<K, V> newCache(String name, WebClientCacheProperties cache, ToIntFunction<V> weigher,
+                                                ObjectProvider<MeterRegistry> meterRegistry) {
+        // A zero ttl makes the cache a pass-through
+        return new ReactiveCache<>(name, cache.isEnabled() ? cache.getTtl() : Duration.ZERO,
+                cache.getStaleWhileRevalidate(), cache.getMaxWeight(), weigher, Schedulers.parallel(),
+                meterRegistry.getIfAvailable(() -> Metrics.globalRegistry));
+    }
+
+    @Bean
+    public WebClientLoggingFilter webClientLoggingFilter(WebClientLoggingConfiguration loggingConfig,
+                                                         ExchangeLogSink logSink,
+                                                         RequestIdGenerator requestIdGenerator) {
+        return new WebClientLoggingFilter(loggingConfig, logSink, requestIdGenerator);
+    }
+
+    @Bean
+    public BoundedWiretapHandler boundedWiretapHandler(WebClientLoggingConfiguration loggingConfig) {
+        return new BoundedWiretapHandler(loggingConfig);
     }
 
     @Bean
-    public WebClientLoggingFilter webClientLoggingFilter(WebClientLoggingConfiguration loggingConfig) {
-        return new WebClientLoggingFilter(loggingConfig);
+    @ConditionalOnMissingBean
+    public RequestIdGenerator requestIdGenerator() {
+        return new DefaultRequestIdGenerator();
     }
 }
\ No newline at end of file
@@ -0,0 +1,98 @@
+package com.chawki.webclient.logs.webclient_logs.config;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+/**
+ * Asynchronous DNS resolution of the WebClient, read once when the resolver is built.
+ */
+@Component
+@ConfigurationProperties(prefix = "webclient.dns")
+public class WebClientDnsProperties {
+
+    // false falls back to Reactor Netty's default resolver
+    private boolean enabled = true;
+    // Bounds applied to the TTL of each record
+    private Duration minTtl = Duration.ZERO;
+    private Duration maxTtl = Duration.ofMinutes(5);
+    // How long a failed lookup (e.g. NXDOMAIN) is served from the cache
+    private Duration negativeTtl = Duration.ofSeconds(10);
+    private Duration queryTimeout = Duration.ofSeconds(2);
+    // Rotate over all A/AAAA records of a host instead of always using the first one
+    private boolean roundRobin = true;
+    // host:port entries queried in order; empty uses the platform's resolv.conf
+    private List<String> nameServers = new ArrayList<>();
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    public void setEnabled(boolean enabled) {
+        this.enabled = enabled;
+    }
+
+    public Duration getMinTtl() {
+        return minTtl;
+    }
+
+    public void setMinTtl(Duration minTtl) {
+        this.minTtl = minTtl;
+    }
+
+    public Duration getMaxTtl() {
+        return maxTtl;
+    }
+
+    public void setMaxTtl(Duration maxTtl) {
+        this.maxTtl = maxTtl;
+    }
+
+    public Duration getNegativeTtl() {
+        return negativeTtl;
+    }
+
+    public void setNegativeTtl(Duration negativeTtl) {
+        this.negativeTtl = negativeTtl;
+    }
+
+    public Duration getQueryTimeout() {
+        return queryTimeout;
+    }
+
+    public void setQueryTimeout(Duration queryTimeout) {
+        this.queryTimeout = queryTimeout;
+    }
+
+    public boolean isRoundRobin() {
+        return roundRobin;
+    }
+
+    public void setRoundRobin(boolean roundRobin) {
+        this.roundRobin = roundRobin;
+    }
+
+    public List<String> getNameServers() {
+        return nameServers;
+    }
+
+    public void setNameServers(List<String> nameServers) {
+        this.nameServers = nameServers;
+    }
+
+    @Override
+    public String toString() {
+        return "WebClientDnsProperties{" +
+                "enabled=" + enabled +
+                ", minTtl=" + minTtl +
+                ", maxTtl=" + maxTtl +
+                ", negativeTtl=" + negativeTtl +
+                ", queryTimeout=" + queryTimeout +
+                ", roundRobin=" + roundRobin +
+                ", nameServers=" + nameServers +
+                '}';
+    }
+}
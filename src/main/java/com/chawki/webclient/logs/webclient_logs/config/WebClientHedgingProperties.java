@@ -0,0 +1,146 @@
+package com.chawki.webclient.logs.webclient_logs.config;
+
+import java.time.Duration;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+/**
+ * Hedged requests for idempotent calls, read once when the hedger is built.
+ */
+@Component
+@ConfigurationProperties(prefix = "webclient.hedging")
+public class WebClientHedgingProperties {
+
+    // Opt-in: a hedge is a second request to the upstream
+    private boolean enabled = false;
+    // A hedge is sent once the call is slower than this percentile of its recent latencies
+    private double percentile = 0.95;
+    // Used until min-samples latencies have been recorded for the call
+    private Duration defaultDelay = Duration.ofMillis(200);
+    private Duration minDelay = Duration.ofMillis(20);
+    private Duration maxDelay = Duration.ofSeconds(2);
+    private int minSamples = 50;
+    // Latest latencies kept per call to compute the percentile
+    private int sampleSize = 1024;
+    private Budget budget = new Budget();
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    public void setEnabled(boolean enabled) {
+        this.enabled = enabled;
+    }
+
+    public double getPercentile() {
+        return percentile;
+    }
+
+    public void setPercentile(double percentile) {
+        this.percentile = percentile;
+    }
+
+    public Duration getDefaultDelay() {
+        return defaultDelay;
+    }
+
+    public void setDefaultDelay(Duration defaultDelay) {
+        this.defaultDelay = defaultDelay;
+    }
+
+    public Duration getMinDelay() {
+        return minDelay;
+    }
+
+    public void setMinDelay(Duration minDelay) {
+        this.minDelay = minDelay;
+    }
+
+    public Duration getMaxDelay() {
+        return maxDelay;
+    }
+
+    public void setMaxDelay(Duration maxDelay) {
+        this.maxDelay = maxDelay;
+    }
+
+    public int getMinSamples() {
+        return minSamples;
+    }
+
+    public void setMinSamples(int minSamples) {
+        this.minSamples = minSamples;
+    }
+
+    public int getSampleSize() {
+        return sampleSize;
+    }
+
+    public void setSampleSize(int sampleSize) {
+        this.sampleSize = sampleSize;
+    }
+
+    public Budget getBudget() {
+        return budget;
+    }
+
+    public void setBudget(Budget budget) {
+        this.budget = budget;
+    }
+
+    @Override
+    public String toString() {
+        return "WebClientHedgingProperties{" +
+                "enabled=" + enabled +
+                ", percentile=" + percentile +
+                ", defaultDelay=" + defaultDelay +
+                ", minDelay=" + minDelay +
+                ", maxDelay=" + maxDelay +
+                ", minSamples=" + minSamples +
+                ", sampleSize=" + sampleSize +
+                ", budget=" + budget +
+                '}';
+    }
+
+    public static class Budget {
+
+        // Each call earns this fraction of a hedge: 0.1 caps the extra load at about 10%
+        private double ratio = 0.1;
+        private int minPerSecond = 1;
+        private int maxBalance = 20;
+
+        public double getRatio() {
+            return ratio;
+        }
+
+        public void setRatio(double ratio) {
+            this.ratio = ratio;
+        }
+
+        public int getMinPerSecond() {
+            return minPerSecond;
+        }
+
+        public void setMinPerSecond(int minPerSecond) {
+            this.minPerSecond = minPerSecond;
+        }
+
+        public int getMaxBalance() {
+            return maxBalance;
+        }
+
+        public void setMaxBalance(int maxBalance) {
+            this.maxBalance = maxBalance;
+        }
+
+        @Override
+        public String toString() {
+            return "Budget{" +
+                    "ratio=" + ratio +
+                    ", minPerSecond=" + minPerSecond +
+                    ", maxBalance=" + maxBalance +
+                    '}';
+        }
+    }
+}
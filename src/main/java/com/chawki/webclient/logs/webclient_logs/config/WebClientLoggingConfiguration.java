@@ -4,75 +4,216 @@ package com.chawki.webclient.logs.webclient_logs.config;
 import org.springframework.boot.context.properties.ConfigurationProperties;
 import org.springframework.stereotype.Component;
 
+import com.chawki.webclient.logs.webclient_logs.logging.HeaderMaskingPolicy;
+import com.chawki.webclient.logs.webclient_logs.logging.OverflowPolicy;
+import com.chawki.webclient.logs.webclient_logs.logging.SamplingMode;
+
+import java.util.List;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.Consumer;
+
 @Component
 @ConfigurationProperties(prefix = "webclient.logging")
 public class WebClientLoggingConfiguration {
-    
-    private boolean enabled = true;
-    private boolean includeHeaders = true;
-    private boolean includeBody = true;
-    private int maxBodySize = 1000;
-    private boolean includeParameters = true;
-    private boolean maskSensitiveData = true;
+
+    // Runtime-adjustable settings live in one immutable snapshot swapped atomically,
+    // so readers on the event loop never observe a half-applied update
+    private final AtomicReference<LoggingSettings> settings = new AtomicReference<>(LoggingSettings.defaults());
+
+    // Asynchronous sink settings, read once when the sink starts
+    private int queueCapacity = 8192;
+    private int drainBatchSize = 256;
+
+    /**
+     * Current snapshot. Read it once per exchange rather than calling the individual getters.
+     */
+    public LoggingSettings getSettings() {
+        return settings.get();
+    }
+
+    /**
+     * Apply several changes as one atomic swap and return the resulting snapshot.
+     * The consumer may run more than once under contention, so it must only touch the builder.
+     */
+    public LoggingSettings update(Consumer<LoggingSettings.Builder> changes) {
+        return settings.updateAndGet(current -> {
+            LoggingSettings.Builder builder = current.toBuilder();
+            changes.accept(builder);
+            return builder.build();
+        });
+    }
 
     // Getters and Setters
     public boolean isEnabled() {
-        return enabled;
+        return getSettings().enabled();
     }
 
     public void setEnabled(boolean enabled) {
-        this.enabled = enabled;
+        update(builder -> builder.enabled(enabled));
     }
 
     public boolean isIncludeHeaders() {
-        return includeHeaders;
+        return getSettings().includeHeaders();
     }
 
     public void setIncludeHeaders(boolean includeHeaders) {
-        this.includeHeaders = includeHeaders;
+        update(builder -> builder.includeHeaders(includeHeaders));
     }
 
     public boolean isIncludeBody() {
-        return includeBody;
+        return getSettings().includeBody();
     }
 
     public void setIncludeBody(boolean includeBody) {
-        this.includeBody = includeBody;
+        update(builder -> builder.includeBody(includeBody));
     }
 
     public int getMaxBodySize() {
-        return maxBodySize;
+        return getSettings().maxBodySize();
     }
 
     public void setMaxBodySize(int maxBodySize) {
-        this.maxBodySize = maxBodySize;
+        update(builder -> builder.maxBodySize(maxBodySize));
     }
 
     public boolean isIncludeParameters() {
-        return includeParameters;
+        return getSettings().includeParameters();
     }
 
     public void setIncludeParameters(boolean includeParameters) {
-        this.includeParameters = includeParameters;
+        update(builder -> builder.includeParameters(includeParameters));
     }
 
     public boolean isMaskSensitiveData() {
-        return maskSensitiveData;
+        return getSettings().maskSensitiveData();
     }
 
     public void setMaskSensitiveData(boolean maskSensitiveData) {
-        this.maskSensitiveData = maskSensitiveData;
+        update(builder -> builder.maskSensitiveData(maskSensitiveData));
+    }
+
+    public List<String> getMaskedHeaders() {
+        return getSettings().maskedHeaders();
+    }
+
+    public void setMaskedHeaders(List<String> maskedHeaders) {
+        update(builder -> builder.maskedHeaders(maskedHeaders));
+    }
+
+    public List<String> getMaskedHeaderPatterns() {
+        return getSettings().maskedHeaderPatterns();
+    }
+
+    public void setMaskedHeaderPatterns(List<String> maskedHeaderPatterns) {
+        update(builder -> builder.maskedHeaderPatterns(maskedHeaderPatterns));
+    }
+
+    public HeaderMaskingPolicy getHeaderMaskingPolicy() {
+        return getSettings().headerMaskingPolicy();
+    }
+
+    public OverflowPolicy getOverflowPolicy() {
+        return getSettings().overflowPolicy();
+    }
+
+    public void setOverflowPolicy(OverflowPolicy overflowPolicy) {
+        update(builder -> builder.overflowPolicy(overflowPolicy));
+    }
+
+    public int getOverflowSampleRate() {
+        return getSettings().overflowSampleRate();
+    }
+
+    public void setOverflowSampleRate(int overflowSampleRate) {
+        update(builder -> builder.overflowSampleRate(overflowSampleRate));
+    }
+
+    public SamplingMode getSamplingMode() {
+        return getSettings().samplingMode();
+    }
+
+    public void setSamplingMode(SamplingMode samplingMode) {
+        update(builder -> builder.samplingMode(samplingMode));
+    }
+
+    public double getSampleRate() {
+        return getSettings().sampleRate();
+    }
+
+    public void setSampleRate(double sampleRate) {
+        update(builder -> builder.sampleRate(sampleRate));
+    }
+
+    public int getRateLimitPerSecond() {
+        return getSettings().rateLimitPerSecond();
+    }
+
+    public void setRateLimitPerSecond(int rateLimitPerSecond) {
+        update(builder -> builder.rateLimitPerSecond(rateLimitPerSecond));
+    }
+
+    public boolean isAlwaysLogErrorsAndSlow() {
+        return getSettings().alwaysLogErrorsAndSlow();
+    }
+
+    public void setAlwaysLogErrorsAndSlow(boolean alwaysLogErrorsAndSlow) {
+        update(builder -> builder.alwaysLogErrorsAndSlow(alwaysLogErrorsAndSlow));
+    }
+
+    public long getSlowThresholdMs() {
+        return getSettings().slowThresholdMs();
+    }
+
+    public void setSlowThresholdMs(long slowThresholdMs) {
+        update(builder -> builder.slowThresholdMs(slowThresholdMs));
+    }
+
+    public List<RouteLoggingPolicy> getRoutes() {
+        return getSettings().routes();
+    }
+
+    public void setRoutes(List<RouteLoggingPolicy> routes) {
+        update(builder -> builder.routes(routes));
+    }
+
+    public boolean isWiretap() {
+        return getSettings().wiretap();
+    }
+
+    public void setWiretap(boolean wiretap) {
+        update(builder -> builder.wiretap(wiretap));
+    }
+
+    public int getWiretapMaxBytes() {
+        return getSettings().wiretapMaxBytes();
+    }
+
+    public void setWiretapMaxBytes(int wiretapMaxBytes) {
+        update(builder -> builder.wiretapMaxBytes(wiretapMaxBytes));
+    }
+
+    public int getQueueCapacity() {
+        return queueCapacity;
+    }
+
+    public void setQueueCapacity(int queueCapacity) {
+        this.queueCapacity = queueCapacity;
+    }
+
+    public int getDrainBatchSize() {
+        return drainBatchSize;
+    }
+
+    public void setDrainBatchSize(int drainBatchSize) {
+        this.drainBatchSize = drainBatchSize;
     }
 
     @Override
     public String toString() {
         return "WebClientLoggingConfiguration{" +
-                "enabled=" + enabled +
-                ", includeHeaders=" + includeHeaders +
-                ", includeBody=" + includeBody +
-                ", maxBodySize=" + maxBodySize +
-                ", includeParameters=" + includeParameters +
-                ", maskSensitiveData=" + maskSensitiveData +
+                "settings=" + getSettings() +
+                ", queueCapacity=" + queueCapacity +
+                ", drainBatchSize=" + drainBatchSize +
                 '}';
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,152 @@
+package com.chawki.webclient.logs.webclient_logs.config;
+
+import java.time.Duration;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+/**
+ * Connection pool of the WebClient, read once when the {@code ConnectionProvider} is built.
+ */
+@Component
+@ConfigurationProperties(prefix = "webclient.pool")
+public class WebClientPoolProperties {
+
+    public enum LeasingStrategy {
+        // Oldest idle connection first: spreads load over the whole pool
+        FIFO,
+        // Most recently released first: lets surplus connections go idle and be evicted after a burst
+        LIFO
+    }
+
+    // Pool name, also used as the "name" tag of the reactor.netty.connection.provider.* metrics
+    private String name = "webclient";
+    private int maxConnections = 100;
+    private int pendingAcquireMaxCount = 500;
+    private Duration pendingAcquireTimeout = Duration.ofSeconds(5);
+    private Duration maxIdleTime = Duration.ofSeconds(30);
+    private Duration maxLifeTime = Duration.ofMinutes(5);
+    private Duration evictionInterval = Duration.ofSeconds(30);
+    private LeasingStrategy leasingStrategy = LeasingStrategy.FIFO;
+    // HTTP/2 only: streams multiplexed on one connection before the pool opens another
+    private int maxConcurrentStreams = 100;
+    // HTTP/2 only: connections kept open; extra ones are opened only once these are saturated
+    private int minConnections = 1;
+    private boolean metricsEnabled = true;
+    // How long shutdown waits for in-flight exchanges before closing connections
+    private Duration disposeTimeout = Duration.ofSeconds(5);
+
+    public String getName() {
+        return name;
+    }
+
+    public void setName(String name) {
+        this.name = name;
+    }
+
+    public int getMaxConnections() {
+        return maxConnections;
+    }
+
+    public void setMaxConnections(int maxConnections) {
+        this.maxConnections = maxConnections;
+    }
+
+    public int getPendingAcquireMaxCount() {
+        return pendingAcquireMaxCount;
+    }
+
+    public void setPendingAcquireMaxCount(int pendingAcquireMaxCount) {
+        this.pendingAcquireMaxCount = pendingAcquireMaxCount;
+    }
+
+    public Duration getPendingAcquireTimeout() {
+        return pendingAcquireTimeout;
+    }
+
+    public void setPendingAcquireTimeout(Duration pendingAcquireTimeout) {
+        this.pendingAcquireTimeout = pendingAcquireTimeout;
+    }
+
+    public Duration getMaxIdleTime() {
+        return maxIdleTime;
+    }
+
+    public void setMaxIdleTime(Duration maxIdleTime) {
+        this.maxIdleTime = maxIdleTime;
+    }
+
+    public Duration getMaxLifeTime() {
+        return maxLifeTime;
+    }
+
+    public void setMaxLifeTime(Duration maxLifeTime) {
+        this.maxLifeTime = maxLifeTime;
+    }
+
+    public Duration getEvictionInterval() {
+        return evictionInterval;
+    }
+
+    public void setEvictionInterval(Duration evictionInterval) {
+        this.evictionInterval = evictionInterval;
+    }
+
+    public LeasingStrategy getLeasingStrategy() {
+        return leasingStrategy;
+    }
+
+    public void setLeasingStrategy(LeasingStrategy leasingStrategy) {
+        this.leasingStrategy = leasingStrategy;
+    }
+
+    public int getMaxConcurrentStreams() {
+        return maxConcurrentStreams;
+    }
+
+    public void setMaxConcurrentStreams(int maxConcurrentStreams) {
+        this.maxConcurrentStreams = maxConcurrentStreams;
+    }
+
+    public int getMinConnections() {
+        return minConnections;
+    }
+
+    public void setMinConnections(int minConnections) {
+        this.minConnections = minConnections;
+    }
+
+    public boolean isMetricsEnabled() {
+        return metricsEnabled;
+    }
+
+    public void setMetricsEnabled(boolean metricsEnabled) {
+        this.metricsEnabled = metricsEnabled;
+    }
+
+    public Duration getDisposeTimeout() {
+        return disposeTimeout;
+    }
+
+    public void setDisposeTimeout(Duration disposeTimeout) {
+        this.disposeTimeout = disposeTimeout;
+    }
+
+    @Override
+    public String toString() {
+        return "WebClientPoolProperties{" +
+                "name='" + name + '\'' +
+                ", maxConnections=" + maxConnections +
+                ", pendingAcquireMaxCount=" + pendingAcquireMaxCount +
+                ", pendingAcquireTimeout=" + pendingAcquireTimeout +
+                ", maxIdleTime=" + maxIdleTime +
+                ", maxLifeTime=" + maxLifeTime +
+                ", evictionInterval=" + evictionInterval +
+                ", leasingStrategy=" + leasingStrategy +
+                ", maxConcurrentStreams=" + maxConcurrentStreams +
+                ", minConnections=" + minConnections +
+                ", metricsEnabled=" + metricsEnabled +
+                ", disposeTimeout=" + disposeTimeout +
+                '}';
+    }
+}
@@ -0,0 +1,168 @@
+package com.chawki.webclient.logs.webclient_logs.config;
+
+import java.time.Duration;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+/**
+ * Per-host circuit breaker and bulkhead of the WebClient, read once when the filter is built.
+ */
+@Component
+@ConfigurationProperties(prefix = "webclient.resilience")
+public class WebClientResilienceProperties {
+
+    private boolean enabled = true;
+    private CircuitBreaker circuitBreaker = new CircuitBreaker();
+    private Bulkhead bulkhead = new Bulkhead();
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    public void setEnabled(boolean enabled) {
+        this.enabled = enabled;
+    }
+
+    public CircuitBreaker getCircuitBreaker() {
+        return circuitBreaker;
+    }
+
+    public void setCircuitBreaker(CircuitBreaker circuitBreaker) {
+        this.circuitBreaker = circuitBreaker;
+    }
+
+    public Bulkhead getBulkhead() {
+        return bulkhead;
+    }
+
+    public void setBulkhead(Bulkhead bulkhead) {
+        this.bulkhead = bulkhead;
+    }
+
+    @Override
+    public String toString() {
+        return "WebClientResilienceProperties{" +
+                "enabled=" + enabled +
+                ", circuitBreaker=" + circuitBreaker +
+                ", bulkhead=" + bulkhead +
+                '}';
+    }
+
+    public static class CircuitBreaker {
+
+        // Failures are counted over this window, split into buckets that expire one at a time
+        private Duration window = Duration.ofSeconds(10);
+        private int buckets = 10;
+        // Below this many calls in the window the failure rate is not evaluated
+        private int minimumCalls = 20;
+        // Fraction of failed calls (0..1) that opens the circuit
+        private double failureRateThreshold = 0.5;
+        // How long calls fail fast before trial calls are let through
+        private Duration openDuration = Duration.ofSeconds(30);
+        // Trial calls allowed while half-open; all must succeed to close the circuit
+        private int halfOpenCalls = 3;
+
+        public Duration getWindow() {
+            return window;
+        }
+
+        public void setWindow(Duration window) {
+            this.window = window;
+        }
+
+        public int getBuckets() {
+            return buckets;
+        }
+
+        public void setBuckets(int buckets) {
+            this.buckets = buckets;
+        }
+
+        public int getMinimumCalls() {
+            return minimumCalls;
+        }
+
+        public void setMinimumCalls(int minimumCalls) {
+            this.minimumCalls = minimumCalls;
+        }
+
+        public double getFailureRateThreshold() {
+            return failureRateThreshold;
+        }
+
+        public void setFailureRateThreshold(double failureRateThreshold) {
+            this.failureRateThreshold = failureRateThreshold;
+        }
+
+        public Duration getOpenDuration() {
+            return openDuration;
+        }
+
+        public void setOpenDuration(Duration openDuration) {
+            this.openDuration = openDuration;
+        }
+
+        public int getHalfOpenCalls() {
+            return halfOpenCalls;
+        }
+
+        public void setHalfOpenCalls(int halfOpenCalls) {
+            this.halfOpenCalls = halfOpenCalls;
+        }
+
+        @Override
+        public String toString() {
+            return "CircuitBreaker{" +
+                    "window=" + window +
+                    ", buckets=" + buckets +
+                    ", minimumCalls=" + minimumCalls +
+                    ", failureRateThreshold=" + failureRateThreshold +
+                    ", openDuration=" + openDuration +
+                    ", halfOpenCalls=" + halfOpenCalls +
+                    '}';
+        }
+    }
+
+    public static class Bulkhead {
+
+        // Calls in flight per host
+        private int maxConcurrent = 50;
+        // Calls waiting for a slot per host; beyond that calls are rejected at once
+        private int maxQueued = 100;
+        private Duration maxWait = Duration.ofSeconds(1);
+
+        public int getMaxConcurrent() {
+            return maxConcurrent;
+        }
+
+        public void setMaxConcurrent(int maxConcurrent) {
+            this.maxConcurrent = maxConcurrent;
+        }
+
+        public int getMaxQueued() {
+            return maxQueued;
+        }
+
+        public void setMaxQueued(int maxQueued) {
+            this.maxQueued = maxQueued;
+        }
+
+        public Duration getMaxWait() {
+            return maxWait;
+        }
+
+        public void setMaxWait(Duration maxWait) {
+            this.maxWait = maxWait;
+        }
+
+        @Override
+        public String toString() {
+            return "Bulkhead{" +
+                    "maxConcurrent=" + maxConcurrent +
+                    ", maxQueued=" + maxQueued +
+                    ", maxWait=" + maxWait +
+                    '}';
+        }
+    }
+}
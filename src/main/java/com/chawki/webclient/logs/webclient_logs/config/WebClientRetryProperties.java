@@ -0,0 +1,238 @@
+package com.chawki.webclient.logs.webclient_logs.config;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+/**
+ * Retry policy shared by all WebClient calls, read once when the engine is built.
+ */
+@Component
+@ConfigurationProperties(prefix = "webclient.retry")
+public class WebClientRetryProperties {
+
+    // Total attempts: the first call plus max-attempts - 1 retries
+    private int maxAttempts = 3;
+    // POST and PATCH are only retried when set: a timed out call may have been applied
+    private boolean retryNonIdempotent = false;
+    private Backoff backoff = new Backoff();
+    private List<Integer> retryOnStatus = new ArrayList<>(List.of(408, 429, 500, 502, 503, 504));
+    // Matched against the error and its causes, subclasses included
+    private List<String> retryOnExceptions = new ArrayList<>(List.of(
+            "java.net.ConnectException",
+            "java.util.concurrent.TimeoutException",
+            "io.netty.handler.timeout.ReadTimeoutException",
+            "io.netty.handler.timeout.WriteTimeoutException",
+            "reactor.netty.http.client.PrematureCloseException"));
+    private Budget budget = new Budget();
+    private RateLimit rateLimit = new RateLimit();
+
+    public int getMaxAttempts() {
+        return maxAttempts;
+    }
+
+    public void setMaxAttempts(int maxAttempts) {
+        this.maxAttempts = maxAttempts;
+    }
+
+    public boolean isRetryNonIdempotent() {
+        return retryNonIdempotent;
+    }
+
+    public void setRetryNonIdempotent(boolean retryNonIdempotent) {
+        this.retryNonIdempotent = retryNonIdempotent;
+    }
+
+    public Backoff getBackoff() {
+        return backoff;
+    }
+
+    public void setBackoff(Backoff backoff) {
+        this.backoff = backoff;
+    }
+
+    public List<Integer> getRetryOnStatus() {
+        return retryOnStatus;
+    }
+
+    public void setRetryOnStatus(List<Integer> retryOnStatus) {
+        this.retryOnStatus = retryOnStatus;
+    }
+
+    public List<String> getRetryOnExceptions() {
+        return retryOnExceptions;
+    }
+
+    public void setRetryOnExceptions(List<String> retryOnExceptions) {
+        this.retryOnExceptions = retryOnExceptions;
+    }
+
+    public Budget getBudget() {
+        return budget;
+    }
+
+    public void setBudget(Budget budget) {
+        this.budget = budget;
+    }
+
+    public RateLimit getRateLimit() {
+        return rateLimit;
+    }
+
+    public void setRateLimit(RateLimit rateLimit) {
+        this.rateLimit = rateLimit;
+    }
+
+    @Override
+    public String toString() {
+        return "WebClientRetryProperties{" +
+                "maxAttempts=" + maxAttempts +
+                ", retryNonIdempotent=" + retryNonIdempotent +
+                ", backoff=" + backoff +
+                ", retryOnStatus=" + retryOnStatus +
+                ", retryOnExceptions=" + retryOnExceptions +
+                ", budget=" + budget +
+                ", rateLimit=" + rateLimit +
+                '}';
+    }
+
+    public static class Backoff {
+
+        // Upper bound of the first delay; each retry draws uniformly below its bound (full jitter)
+        private Duration initialInterval = Duration.ofSeconds(1);
+        private Duration maxInterval = Duration.ofSeconds(10);
+        private double multiplier = 2.0;
+
+        public Duration getInitialInterval() {
+            return initialInterval;
+        }
+
+        public void setInitialInterval(Duration initialInterval) {
+            this.initialInterval = initialInterval;
+        }
+
+        public Duration getMaxInterval() {
+            return maxInterval;
+        }
+
+        public void setMaxInterval(Duration maxInterval) {
+            this.maxInterval = maxInterval;
+        }
+
+        public double getMultiplier() {
+            return multiplier;
+        }
+
+        public void setMultiplier(double multiplier) {
+            this.multiplier = multiplier;
+        }
+
+        @Override
+        public String toString() {
+            return "Backoff{" +
+                    "initialInterval=" + initialInterval +
+                    ", maxInterval=" + maxInterval +
+                    ", multiplier=" + multiplier +
+                    '}';
+        }
+    }
+
+    public static class Budget {
+
+        private boolean enabled = true;
+        // Each call earns this fraction of a retry: 0.1 caps retries at about 10% of the traffic
+        private double ratio = 0.1;
+        // Retries earned per second regardless of traffic, so low-volume callers can still retry
+        private int minRetriesPerSecond = 5;
+        // Largest number of retries that can be saved up for a burst
+        private int maxBalance = 100;
+
+        public boolean isEnabled() {
+            return enabled;
+        }
+
+        public void setEnabled(boolean enabled) {
+            this.enabled = enabled;
+        }
+
+        public double getRatio() {
+            return ratio;
+        }
+
+        public void setRatio(double ratio) {
+            this.ratio = ratio;
+        }
+
+        public int getMinRetriesPerSecond() {
+            return minRetriesPerSecond;
+        }
+
+        public void setMinRetriesPerSecond(int minRetriesPerSecond) {
+            this.minRetriesPerSecond = minRetriesPerSecond;
+        }
+
+        public int getMaxBalance() {
+            return maxBalance;
+        }
+
+        public void setMaxBalance(int maxBalance) {
+            this.maxBalance = maxBalance;
+        }
+
+        @Override
+        public String toString() {
+            return "Budget{" +
+                    "enabled=" + enabled +
+                    ", ratio=" + ratio +
+                    ", minRetriesPerSecond=" + minRetriesPerSecond +
+                    ", maxBalance=" + maxBalance +
+                    '}';
+        }
+    }
+
+    public static class RateLimit {
+
+        // Pace every caller of a host once it answers 429, or 503 with Retry-After
+        private boolean enabled = true;
+        // Cooldown after a 429 that carries no Retry-After
+        private Duration defaultCooldown = Duration.ofSeconds(1);
+        // Longer Retry-After values are not waited for: the call fails instead of being retried
+        private Duration maxCooldown = Duration.ofSeconds(30);
+
+        public boolean isEnabled() {
+            return enabled;
+        }
+
+        public void setEnabled(boolean enabled) {
+            this.enabled = enabled;
+        }
+
+        public Duration getDefaultCooldown() {
+            return defaultCooldown;
+        }
+
+        public void setDefaultCooldown(Duration defaultCooldown) {
+            this.defaultCooldown = defaultCooldown;
+        }
+
+        public Duration getMaxCooldown() {
+            return maxCooldown;
+        }
+
+        public void setMaxCooldown(Duration maxCooldown) {
+            this.maxCooldown = maxCooldown;
+        }
+
+        @Override
+        public String toString() {
+            return "RateLimit{" +
+                    "enabled=" + enabled +
+                    ", defaultCooldown=" + defaultCooldown +
+                    ", maxCooldown=" + maxCooldown +
+                    '}';
+        }
+    }
+}
@@ -0,0 +1,113 @@
+package com.chawki.webclient.logs.webclient_logs.config;
+
+import java.time.Duration;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+/**
+ * Event loops and socket options of the WebClient, read once when the client is built.
+ */
+@Component
+@ConfigurationProperties(prefix = "webclient.transport")
+public class WebClientTransportProperties {
+
+    // false: dedicated loops, so slow upstreams cannot starve the embedded server's threads
+    private boolean shareServerLoops = false;
+    private int workerThreads = Math.max(Runtime.getRuntime().availableProcessors(), 4);
+    private String threadPrefix = "webclient";
+    // epoll when available on this platform, NIO otherwise
+    private boolean preferNative = true;
+    private boolean tcpNoDelay = true;
+    private boolean keepAlive = true;
+    private Duration keepIdle = Duration.ofSeconds(60);
+    private Duration keepInterval = Duration.ofSeconds(10);
+    private int keepCount = 3;
+
+    public boolean isShareServerLoops() {
+        return shareServerLoops;
+    }
+
+    public void setShareServerLoops(boolean shareServerLoops) {
+        this.shareServerLoops = shareServerLoops;
+    }
+
+    public int getWorkerThreads() {
+        return workerThreads;
+    }
+
+    public void setWorkerThreads(int workerThreads) {
+        this.workerThreads = workerThreads;
+    }
+
+    public String getThreadPrefix() {
+        return threadPrefix;
+    }
+
+    public void setThreadPrefix(String threadPrefix) {
+        this.threadPrefix = threadPrefix;
+    }
+
+    public boolean isPreferNative() {
+        return preferNative;
+    }
+
+    public void setPreferNative(boolean preferNative) {
+        this.preferNative = preferNative;
+    }
+
+    public boolean isTcpNoDelay() {
+        return tcpNoDelay;
+    }
+
+    public void setTcpNoDelay(boolean tcpNoDelay) {
+        this.tcpNoDelay = tcpNoDelay;
+    }
+
+    public boolean isKeepAlive() {
+        return keepAlive;
+    }
+
+    public void setKeepAlive(boolean keepAlive) {
+        this.keepAlive = keepAlive;
+    }
+
+    public Duration getKeepIdle() {
+        return keepIdle;
+    }
+
+    public void setKeepIdle(Duration keepIdle) {
+        this.keepIdle = keepIdle;
+    }
+
+    public Duration getKeepInterval() {
+        return keepInterval;
+    }
+
+    public void setKeepInterval(Duration keepInterval) {
+        this.keepInterval = keepInterval;
+    }
+
+    public int getKeepCount() {
+        return keepCount;
+    }
+
+    public void setKeepCount(int keepCount) {
+        this.keepCount = keepCount;
+    }
+
+    @Override
+    public String toString() {
+        return "WebClientTransportProperties{" +
+                "shareServerLoops=" + shareServerLoops +
+                ", workerThreads=" + workerThreads +
+                ", threadPrefix='" + threadPrefix + '\'' +
+                ", preferNative=" + preferNative +
+                ", tcpNoDelay=" + tcpNoDelay +
+                ", keepAlive=" + keepAlive +
+                ", keepIdle=" + keepIdle +
+                ", keepInterval=" + keepInterval +
+                ", keepCount=" + keepCount +
+                '}';
+    }
+}
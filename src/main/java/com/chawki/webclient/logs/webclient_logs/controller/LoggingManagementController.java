@@ -6,6 +6,7 @@ import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 
+import com.chawki.webclient.logs.webclient_logs.config.LoggingSettings;
 import com.chawki.webclient.logs.webclient_logs.config.WebClientLoggingConfiguration;
 import com.chawki.webclient.logs.webclient_logs.service.UserService;
 
@@ -31,13 +32,7 @@ public class LoggingManagementController {
 
     @GetMapping("/status")
     public ResponseEntity<Map<String, Object>> getLoggingStatus() {
-        Map<String, Object> status = new HashMap<>();
-        status.put("enabled", loggingConfig.isEnabled());
-        status.put("includeHeaders", loggingConfig.isIncludeHeaders());
-        status.put("includeBody", loggingConfig.isIncludeBody());
-        status.put("includeParameters", loggingConfig.isIncludeParameters());
-        status.put("maxBodySize", loggingConfig.getMaxBodySize());
-        status.put("maskSensitiveData", loggingConfig.isMaskSensitiveData());
+        Map<String, Object> status = getCurrentSettings();
         
         return ResponseEntity.ok(status);
     }
@@ -127,13 +122,15 @@ public class LoggingManagementController {
     }
 
     private Map<String, Object> getCurrentSettings() {
+        // Single snapshot so the reported values are consistent with each other
+        LoggingSettings current = loggingConfig.getSettings();
         Map<String, Object> settings = new HashMap<>();
-        settings.put("enabled", loggingConfig.isEnabled());
-        settings.put("includeHeaders", loggingConfig.isIncludeHeaders());
-        settings.put("includeBody", loggingConfig.isIncludeBody());
-        settings.put("includeParameters", loggingConfig.isIncludeParameters());
-        settings.put("maxBodySize", loggingConfig.getMaxBodySize());
-        settings.put("maskSensitiveData", loggingConfig.isMaskSensitiveData());
+        settings.put("enabled", current.enabled());
+        settings.put("includeHeaders", current.includeHeaders());
+        settings.put("includeBody", current.includeBody());
+        settings.put("includeParameters", current.includeParameters());
+        settings.put("maxBodySize", current.maxBodySize());
+        settings.put("maskSensitiveData", current.maskSensitiveData());
         return settings;
     }
 }
\ No newline at end of file
@@ -7,6 +7,9 @@ import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 
+import java.util.List;
+
+import com.chawki.webclient.logs.webclient_logs.config.WebClientBatchProperties;
 import com.chawki.webclient.logs.webclient_logs.dto.User;
 import com.chawki.webclient.logs.webclient_logs.service.UserService;
 
@@ -20,10 +23,12 @@ public class UserController {
     private static final Logger log = LoggerFactory.getLogger(UserController.class);
 
     private final UserService userService;
+    private final WebClientBatchProperties batch;
 
     @Autowired
-    public UserController(UserService userService) {
+    public UserController(UserService userService, WebClientBatchProperties batch) {
         this.userService = userService;
+        this.batch = batch;
     }
 
     @GetMapping
@@ -47,6 +52,22 @@ public class UserController {
                 .map(createdUser -> ResponseEntity.status(HttpStatus.CREATED).body(createdUser));
     }
 
+    /**
+     * Body: a JSON array of ids. Answers the users found, in the order of the ids, duplicates
+     * once; ids without a user are left out rather than failing the batch, and an empty array
+     * answers an empty array. A missing body or more than {@code webclient.batch.max-ids} ids
+     * is a 400.
+     */
+    @PostMapping("/batch")
+    public Mono<ResponseEntity<Flux<User>>> getUsersByIds(@RequestBody(required = false) List<Long> ids) {
+        if (ids == null || ids.size() > batch.getMaxIds()) {
+            log.info("POST /api/users/batch - Rejected: {} ids", ids == null ? "no" : ids.size());
+            return Mono.just(ResponseEntity.badRequest().build());
+        }
+        log.info("POST /api/users/batch - Fetching {} users by id", ids.size());
+        return Mono.just(ResponseEntity.ok(userService.getUsersByIds(ids)));
+    }
+
     @PutMapping("/{id}")
     public Mono<ResponseEntity<User>> updateUser(@PathVariable Long id, @RequestBody User user) {
         log.info("PUT /api/users/{} - Updating user", id);
@@ -0,0 +1,13 @@
+package com.chawki.webclient.logs.webclient_logs.exception;
+
+/**
+ * Raised when a batcher already holds its maximum of items waiting to be sent.
+ */
+public class BatchQueueFullException extends WebClientException {
+
+	private static final long serialVersionUID = 1L;
+
+	public BatchQueueFullException(String batcher, int maxQueued) {
+		super("Batcher " + batcher + " already has " + maxQueued + " items waiting");
+	}
+}
@@ -0,0 +1,22 @@
+package com.chawki.webclient.logs.webclient_logs.exception;
+
+/**
+ * Raised when a host already has its maximum of concurrent calls and its wait queue is full.
+ */
+public class BulkheadFullException extends WebClientException {
+    /**
+	 * 
+	 */
+	private static final long serialVersionUID = 1L;
+
+	private final String host;
+
+	public BulkheadFullException(String host) {
+        super("Too many concurrent calls to host: " + host);
+        this.host = host;
+    }
+
+    public String getHost() {
+        return host;
+    }
+}
@@ -0,0 +1,22 @@
+package com.chawki.webclient.logs.webclient_logs.exception;
+
+/**
+ * Raised without calling the upstream while its circuit breaker is open.
+ */
+public class CircuitBreakerOpenException extends WebClientException {
+    /**
+	 * 
+	 */
+	private static final long serialVersionUID = 1L;
+
+	private final String host;
+
+	public CircuitBreakerOpenException(String host) {
+        super("Circuit breaker open for host: " + host);
+        this.host = host;
+    }
+
+    public String getHost() {
+        return host;
+    }
+}
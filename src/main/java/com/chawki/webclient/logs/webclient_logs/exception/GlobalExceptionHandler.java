@@ -47,4 +47,16 @@ public class GlobalExceptionHandler {
 
 		return Mono.just(ResponseEntity.status(HttpStatus.NOT_FOUND).body(errorResponse));
 	}
+
+	@ExceptionHandler({ CircuitBreakerOpenException.class, BulkheadFullException.class,
+			BatchQueueFullException.class })
+	public Mono<ResponseEntity<Map<String, Object>>> handleUpstreamUnavailable(WebClientException ex) {
+		// Rejected before reaching the upstream: no stack trace, this is the protection working
+		log.warn("Upstream call rejected: {}", ex.getMessage());
+
+		Map<String, Object> errorResponse = createErrorResponse(HttpStatus.SERVICE_UNAVAILABLE.value(),
+				"Service Unavailable", ex.getMessage());
+
+		return Mono.just(ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE).body(errorResponse));
+	}
 }
\ No newline at end of file
@@ -0,0 +1,60 @@
+package com.chawki.webclient.logs.webclient_logs.logging;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+
+import org.springframework.core.io.buffer.DataBuffer;
+
+/**
+ * Keeps a copy of the first {@code limit} bytes of a body while it streams through.
+ * Buffers are read by absolute index, so their read position is left untouched and
+ * they can be forwarded as-is. Once the budget is spent, only the total size is counted.
+ */
+final class BodyCapture {
+
+	private static final String TRUNCATED_SUFFIX = "... (truncated)";
+
+	private final int limit;
+	private byte[] bytes;
+	private ByteBuffer target;
+	private int length;
+	private long totalBytes;
+
+	BodyCapture(int limit) {
+		this.limit = Math.max(limit, 0);
+	}
+
+	void append(DataBuffer dataBuffer) {
+		int readable = dataBuffer.readableByteCount();
+		this.totalBytes += readable;
+
+		int toCopy = Math.min(this.limit - this.length, readable);
+		if (toCopy <= 0) {
+			return;
+		}
+		if (this.bytes == null) {
+			// Allocated lazily and once: bodiless exchanges never pay for it
+			this.bytes = new byte[this.limit];
+			this.target = ByteBuffer.wrap(this.bytes);
+		}
+		dataBuffer.toByteBuffer(dataBuffer.readPosition(), this.target, this.length, toCopy);
+		this.length += toCopy;
+	}
+
+	long getTotalBytes() {
+		return this.totalBytes;
+	}
+
+	boolean isTruncated() {
+		return this.totalBytes > this.length;
+	}
+
+	@Override
+	public String toString() {
+		if (this.length == 0) {
+			return this.totalBytes == 0 ? "" : TRUNCATED_SUFFIX;
+		}
+		String captured = new String(this.bytes, 0, this.length, StandardCharsets.UTF_8);
+		return isTruncated() ? captured + TRUNCATED_SUFFIX : captured;
+	}
+}
@@ -0,0 +1,108 @@
+package com.chawki.webclient.logs.webclient_logs.logging;
+
+import java.net.SocketAddress;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import com.chawki.webclient.logs.webclient_logs.config.LoggingSettings;
+import com.chawki.webclient.logs.webclient_logs.config.WebClientLoggingConfiguration;
+
+import io.netty.buffer.ByteBuf;
+import io.netty.buffer.ByteBufHolder;
+import io.netty.channel.ChannelDuplexHandler;
+import io.netty.channel.ChannelHandler.Sharable;
+import io.netty.channel.ChannelHandlerContext;
+import io.netty.channel.ChannelPromise;
+
+/**
+ * Wire-level logger that can be switched on and off at runtime. Unlike Reactor Netty's
+ * wiretap, it is installed on every connection and checks the settings snapshot on each
+ * event: while disabled it only forwards, and while enabled it renders at most
+ * {@link LoggingSettings#wiretapMaxBytes()} bytes of each message as text.
+ */
+@Sharable
+public final class BoundedWiretapHandler extends ChannelDuplexHandler {
+
+	public static final String NAME = "webclient.wiretap";
+
+	// Same category as the former Netty wiretap so existing logback levels still apply
+	private static final Logger log = LoggerFactory.getLogger("reactor.netty.http.client.HttpClient");
+
+	private final WebClientLoggingConfiguration loggingConfig;
+
+	public BoundedWiretapHandler(WebClientLoggingConfiguration loggingConfig) {
+		this.loggingConfig = loggingConfig;
+	}
+
+	@Override
+	public void channelActive(ChannelHandlerContext ctx) throws Exception {
+		if (isActive()) {
+			log.debug("{} ACTIVE", ctx.channel());
+		}
+		ctx.fireChannelActive();
+	}
+
+	@Override
+	public void channelInactive(ChannelHandlerContext ctx) throws Exception {
+		if (isActive()) {
+			log.debug("{} INACTIVE", ctx.channel());
+		}
+		ctx.fireChannelInactive();
+	}
+
+	@Override
+	public void channelRead(ChannelHandlerContext ctx, Object msg) throws Exception {
+		if (isActive()) {
+			logMessage(ctx, "READ", msg);
+		}
+		ctx.fireChannelRead(msg);
+	}
+
+	@Override
+	public void connect(ChannelHandlerContext ctx, SocketAddress remoteAddress, SocketAddress localAddress,
+			ChannelPromise promise) throws Exception {
+		if (isActive()) {
+			log.debug("{} CONNECT: {}", ctx.channel(), remoteAddress);
+		}
+		ctx.connect(remoteAddress, localAddress, promise);
+	}
+
+	@Override
+	public void write(ChannelHandlerContext ctx, Object msg, ChannelPromise promise) throws Exception {
+		if (isActive()) {
+			logMessage(ctx, "WRITE", msg);
+		}
+		ctx.write(msg, promise);
+	}
+
+	private boolean isActive() {
+		return this.loggingConfig.getSettings().wiretap() && log.isDebugEnabled();
+	}
+
+	private void logMessage(ChannelHandlerContext ctx, String event, Object msg) {
+		ByteBuf buf = msg instanceof ByteBuf byteBuf ? byteBuf
+				: msg instanceof ByteBufHolder holder ? holder.content() : null;
+		if (buf == null) {
+			log.debug("{} {}: {}", ctx.channel(), event, msg.getClass().getSimpleName());
+			return;
+		}
+		int readable = buf.readableBytes();
+		int length = Math.min(readable, Math.max(this.loggingConfig.getSettings().wiretapMaxBytes(), 0));
+		StringBuilder sb = new StringBuilder(length + 64);
+		sb.append(ctx.channel()).append(' ').append(event).append(": ").append(readable).append('B');
+		if (length > 0) {
+			sb.append('\n');
+			// Absolute reads: the buffer's indexes are left untouched for the next handler
+			int start = buf.readerIndex();
+			for (int i = 0; i < length; i++) {
+				int b = buf.getByte(start + i) & 0xFF;
+				sb.append(b == '\n' || b == '\r' || b == '\t' || (b >= 0x20 && b < 0x7F) ? (char) b : '.');
+			}
+			if (length < readable) {
+				sb.append("... (").append(readable - length).append(" more bytes)");
+			}
+		}
+		log.debug(sb.toString());
+	}
+}
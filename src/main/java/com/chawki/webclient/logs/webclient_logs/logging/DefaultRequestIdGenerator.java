@@ -0,0 +1,91 @@
+package com.chawki.webclient.logs.webclient_logs.logging;
+
+import java.security.SecureRandom;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.springframework.web.reactive.function.client.ClientRequest;
+
+import io.netty.util.concurrent.FastThreadLocal;
+
+/**
+ * Default {@link RequestIdGenerator}: reuses an incoming {@code X-Request-ID} or W3C
+ * trace id when the request carries one, otherwise encodes a 40-bit random node prefix
+ * and a 50-bit counter in base32. Each thread takes counter values from blocks it reserves
+ * on a shared counter, so no value is handed out twice however many threads come and go.
+ * No {@code SecureRandom} or UUID on the hot path, and the only allocation is the
+ * resulting String.
+ */
+public class DefaultRequestIdGenerator implements RequestIdGenerator {
+
+	public static final String REQUEST_ID_HEADER = "X-Request-ID";
+	public static final String TRACEPARENT_HEADER = "traceparent";
+
+	private static final char[] ALPHABET = "0123456789abcdefghjkmnpqrstvwxyz".toCharArray();
+	private static final int NODE_CHARS = 8;
+	private static final int COUNTER_CHARS = 10;
+	private static final int ID_LENGTH = NODE_CHARS + COUNTER_CHARS;
+	private static final int BLOCK_SIZE = 1024;
+	// "00-" + 32 hex trace id + "-" + 16 hex parent id + "-" + 2 hex flags
+	private static final int TRACEPARENT_LENGTH = 55;
+
+	private final AtomicLong blocks = new AtomicLong();
+	private final long node;
+	private final FastThreadLocal<ThreadState> state = new FastThreadLocal<>() {
+		@Override
+		protected ThreadState initialValue() {
+			return new ThreadState();
+		}
+	};
+
+	public DefaultRequestIdGenerator() {
+		// Drawn once per instance, so SecureRandom never sits on the request path
+		this(new SecureRandom().nextLong());
+	}
+
+	/**
+	 * @param node only its low 40 bits are used: two instances sharing them issue the same ids
+	 */
+	public DefaultRequestIdGenerator(long node) {
+		this.node = node;
+	}
+
+	@Override
+	public String generate(ClientRequest request) {
+		String incoming = request.headers().getFirst(REQUEST_ID_HEADER);
+		if (incoming != null && !incoming.isEmpty()) {
+			return incoming;
+		}
+		String traceparent = request.headers().getFirst(TRACEPARENT_HEADER);
+		if (traceparent != null && traceparent.length() >= TRACEPARENT_LENGTH) {
+			return traceparent.substring(3, 35);
+		}
+		return this.state.get().next();
+	}
+
+	private final class ThreadState {
+
+		private final char[] chars = new char[ID_LENGTH];
+		private long counter;
+		private long blockEnd;
+
+		ThreadState() {
+			encode(node, 0, NODE_CHARS);
+		}
+
+		String next() {
+			if (this.counter == this.blockEnd) {
+				this.counter = blocks.getAndIncrement() * BLOCK_SIZE;
+				this.blockEnd = this.counter + BLOCK_SIZE;
+			}
+			encode(this.counter++, NODE_CHARS, COUNTER_CHARS);
+			return new String(this.chars);
+		}
+
+		private void encode(long value, int offset, int length) {
+			for (int i = offset + length - 1; i >= offset; i--) {
+				this.chars[i] = ALPHABET[(int) (value & 31)];
+				value >>>= 5;
+			}
+		}
+	}
+}
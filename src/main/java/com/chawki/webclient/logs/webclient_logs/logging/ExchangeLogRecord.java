@@ -0,0 +1,194 @@
+package com.chawki.webclient.logs.webclient_logs.logging;
+
+import java.net.URI;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.time.format.DateTimeFormatter;
+import java.util.concurrent.atomic.AtomicIntegerFieldUpdater;
+
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.HttpStatusCode;
+
+/**
+ * Everything worth logging about one WebClient exchange. The event loop only fills
+ * in references; all string formatting happens in {@link #appendTo(StringBuilder)},
+ * which {@link ExchangeLogSink} calls from its drainer thread.
+ */
+final class ExchangeLogRecord {
+
+	private static final DateTimeFormatter FORMATTER = DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm:ss.SSS");
+
+	private static final AtomicIntegerFieldUpdater<ExchangeLogRecord> PUBLISHED =
+			AtomicIntegerFieldUpdater.newUpdater(ExchangeLogRecord.class, "published");
+
+	private final String requestId;
+	private final long startMillis;
+	private final HttpMethod method;
+	private final URI url;
+	private final boolean includeParameters;
+	private final HeaderMaskingPolicy maskingPolicy;
+
+	private HttpHeaders requestHeaders;
+	private BodyCapture requestBody;
+	private HttpStatusCode statusCode;
+	private HttpHeaders responseHeaders;
+	private BodyCapture responseBody;
+	private WireByteCounter.WireBytes responseWireBytes;
+	private Throwable error;
+	private long durationMillis;
+	private long holdbackThresholdMillis = -1;
+
+	private volatile int published;
+
+	/**
+	 * @param maskingPolicy policy applied when formatting headers, or {@code null} to log them as-is
+	 */
+	ExchangeLogRecord(String requestId, HttpMethod method, URI url, boolean includeParameters,
+			HeaderMaskingPolicy maskingPolicy) {
+		this(requestId, System.currentTimeMillis(), method, url, includeParameters, maskingPolicy);
+	}
+
+	ExchangeLogRecord(String requestId, long startMillis, HttpMethod method, URI url, boolean includeParameters,
+			HeaderMaskingPolicy maskingPolicy) {
+		this.requestId = requestId;
+		this.startMillis = startMillis;
+		this.method = method;
+		this.url = url;
+		this.includeParameters = includeParameters;
+		this.maskingPolicy = maskingPolicy;
+	}
+
+	void requestHeaders(HttpHeaders headers) {
+		this.requestHeaders = headers;
+	}
+
+	void requestBody(BodyCapture capture) {
+		this.requestBody = capture;
+	}
+
+	void response(HttpStatusCode statusCode, HttpHeaders headers) {
+		this.durationMillis = System.currentTimeMillis() - this.startMillis;
+		this.statusCode = statusCode;
+		this.responseHeaders = headers;
+	}
+
+	void responseBody(BodyCapture capture) {
+		this.responseBody = capture;
+	}
+
+	void responseWireBytes(WireByteCounter.WireBytes wireBytes) {
+		this.responseWireBytes = wireBytes;
+	}
+
+	void error(Throwable error) {
+		this.durationMillis = System.currentTimeMillis() - this.startMillis;
+		this.error = error;
+	}
+
+	/**
+	 * Hold the record back unless the exchange fails, returns 5xx or takes at least
+	 * {@code slowThresholdMillis}; see {@link #shouldEmit()}.
+	 */
+	void holdBackUnlessSlowOrFailed(long slowThresholdMillis) {
+		this.holdbackThresholdMillis = slowThresholdMillis;
+	}
+
+	boolean shouldEmit() {
+		if (this.holdbackThresholdMillis < 0 || this.error != null) {
+			return true;
+		}
+		return (this.statusCode != null && this.statusCode.is5xxServerError())
+				|| this.durationMillis >= this.holdbackThresholdMillis;
+	}
+
+	/**
+	 * Claim the right to publish this record; only the first caller wins, so the
+	 * error, cancel and completion paths can all try without logging twice.
+	 */
+	boolean markPublished() {
+		return PUBLISHED.compareAndSet(this, 0, 1);
+	}
+
+	String getRequestId() {
+		return this.requestId;
+	}
+
+	Throwable getError() {
+		return this.error;
+	}
+
+	boolean isError() {
+		return this.error != null;
+	}
+
+	void appendTo(StringBuilder sb) {
+		String timestamp = FORMATTER.format(LocalDateTime.ofInstant(Instant.ofEpochMilli(this.startMillis),
+				ZoneId.systemDefault()));
+		sb.append("=== ").append(isError() ? "ERROR " : "EXCHANGE ").append(this.requestId)
+				.append(" [").append(timestamp).append("] (").append(this.durationMillis).append(" ms) ===");
+		sb.append("\nMethod: ").append(this.method).append(' ').append(this.url);
+
+		if (this.includeParameters) {
+			String query = this.url.getQuery();
+			if (query != null && !query.isEmpty()) {
+				sb.append("\nRequest Parameters: ").append(query);
+			}
+			if (this.url.getPath() != null) {
+				sb.append("\nRequest Path: ").append(this.url.getPath());
+			}
+		}
+		appendHeaders(sb, "Request Headers", this.requestHeaders);
+		appendBody(sb, "Request Body", this.requestBody);
+
+		if (this.statusCode != null) {
+			String reasonPhrase = this.statusCode instanceof HttpStatus status ? status.getReasonPhrase() : "Unknown";
+			sb.append("\nStatus: ").append(this.statusCode.value()).append(' ').append(reasonPhrase);
+			appendHeaders(sb, "Response Headers", this.responseHeaders);
+			appendResponseBody(sb);
+		}
+		if (this.error != null) {
+			sb.append("\nError Type: ").append(this.error.getClass().getSimpleName());
+			sb.append("\nError Message: ").append(this.error.getMessage());
+		}
+	}
+
+	private void appendHeaders(StringBuilder sb, String title, HttpHeaders headers) {
+		if (headers == null) {
+			return;
+		}
+		sb.append('\n').append(title).append(':');
+		headers.forEach((name, values) -> {
+			// One decision per header name, however many values it carries
+			boolean masked = this.maskingPolicy != null && this.maskingPolicy.isSensitive(name);
+			for (String value : values) {
+				sb.append("\n  ").append(name).append(": ").append(masked ? HeaderMaskingPolicy.MASKED : value);
+			}
+		});
+	}
+
+	private void appendResponseBody(StringBuilder sb) {
+		long wireBytes = this.responseWireBytes != null ? this.responseWireBytes.get() : -1;
+		if (this.responseBody == null || wireBytes < 0) {
+			appendBody(sb, "Response Body", this.responseBody);
+			return;
+		}
+		// Decompressed on the fly: report both sizes next to the captured prefix
+		long decodedBytes = this.responseBody.getTotalBytes();
+		sb.append("\nResponse Body (").append(decodedBytes).append(" bytes, ").append(wireBytes)
+				.append(" on the wire");
+		if (wireBytes > 0) {
+			sb.append(", ratio ").append(Math.round(decodedBytes * 10.0 / wireBytes) / 10.0);
+		}
+		sb.append("): ").append(this.responseBody);
+	}
+
+	private void appendBody(StringBuilder sb, String title, BodyCapture capture) {
+		if (capture != null) {
+			sb.append('\n').append(title).append(" (").append(capture.getTotalBytes()).append(" bytes): ")
+					.append(capture);
+		}
+	}
+}
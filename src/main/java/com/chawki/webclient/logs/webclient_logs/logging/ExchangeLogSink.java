@@ -0,0 +1,154 @@
+package com.chawki.webclient.logs.webclient_logs.logging;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.LockSupport;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+
+import com.chawki.webclient.logs.webclient_logs.config.LoggingSettings;
+import com.chawki.webclient.logs.webclient_logs.config.WebClientLoggingConfiguration;
+
+/**
+ * Asynchronous sink for {@link ExchangeLogRecord}s. Event-loop threads only enqueue
+ * records into a bounded lock-free ring buffer; a dedicated drainer thread formats
+ * and writes them in batches, so no appender I/O ever happens on the event loop.
+ */
+@Component
+public class ExchangeLogSink implements DisposableBean {
+
+	// Keep the filter's logger name so existing logback configuration still applies
+	private static final Logger log = LoggerFactory.getLogger(WebClientLoggingFilter.class);
+
+	private static final long IDLE_PARK_NANOS = 5_000_000L;
+	private static final long BLOCK_PARK_NANOS = 100_000L;
+
+	private final WebClientLoggingConfiguration loggingConfig;
+	private final MpscRingBuffer<ExchangeLogRecord> queue;
+	private final int batchSize;
+	private final Thread drainer;
+	private final LongAdder dropped = new LongAdder();
+	private final AtomicLong sampleCounter = new AtomicLong();
+	private final StringBuilder buffer = new StringBuilder(1024);
+
+	private volatile boolean running = true;
+	private long reportedDropped;
+
+	@Autowired
+	public ExchangeLogSink(WebClientLoggingConfiguration loggingConfig) {
+		this.loggingConfig = loggingConfig;
+		this.queue = new MpscRingBuffer<>(loggingConfig.getQueueCapacity());
+		this.batchSize = Math.max(loggingConfig.getDrainBatchSize(), 1);
+		this.drainer = new Thread(this::drainLoop, "webclient-log-drainer");
+		this.drainer.setDaemon(true);
+		this.drainer.start();
+	}
+
+	/**
+	 * Hand a completed record over to the drainer thread. Never formats anything on
+	 * the calling thread; what happens when the queue is saturated is decided by the
+	 * configured {@link OverflowPolicy}. Held-back records of healthy exchanges are
+	 * dropped right here, before any formatting.
+	 */
+	void publish(ExchangeLogRecord record) {
+		if (!record.markPublished() || !record.shouldEmit()) {
+			return;
+		}
+		LoggingSettings settings = this.loggingConfig.getSettings();
+		switch (settings.overflowPolicy()) {
+			case DROP -> offerOrDrop(record);
+			case SAMPLE -> {
+				int sampleRate = Math.max(settings.overflowSampleRate(), 1);
+				if (this.queue.size() < this.queue.capacity() / 2
+						|| this.sampleCounter.incrementAndGet() % sampleRate == 0) {
+					offerOrDrop(record);
+				}
+				else {
+					this.dropped.increment();
+				}
+			}
+			case BLOCK -> {
+				while (!this.queue.offer(record)) {
+					if (!this.running) {
+						this.dropped.increment();
+						return;
+					}
+					LockSupport.parkNanos(BLOCK_PARK_NANOS);
+				}
+			}
+		}
+	}
+
+	private void offerOrDrop(ExchangeLogRecord record) {
+		if (!this.queue.offer(record)) {
+			this.dropped.increment();
+		}
+	}
+
+	public long getDroppedCount() {
+		return this.dropped.sum();
+	}
+
+	public int getQueueSize() {
+		return this.queue.size();
+	}
+
+	private void drainLoop() {
+		while (this.running) {
+			if (drainBatch() == 0) {
+				LockSupport.parkNanos(this, IDLE_PARK_NANOS);
+			}
+		}
+		// Flush whatever was accepted before shutdown
+		int drained;
+		do {
+			drained = drainBatch();
+		}
+		while (drained > 0);
+	}
+
+	private int drainBatch() {
+		int drained = this.queue.drain(this::write, this.batchSize);
+		reportDropped();
+		return drained;
+	}
+
+	private void write(ExchangeLogRecord record) {
+		try {
+			this.buffer.setLength(0);
+			record.appendTo(this.buffer);
+			if (record.isError()) {
+				log.error(this.buffer.toString());
+				if (log.isDebugEnabled()) {
+					log.debug("Full Stack Trace [{}]:", record.getRequestId(), record.getError());
+				}
+			}
+			else {
+				log.info(this.buffer.toString());
+			}
+		}
+		catch (Exception e) {
+			log.warn("Failed to write WebClient exchange log [{}]: {}", record.getRequestId(), e.getMessage());
+		}
+	}
+
+	private void reportDropped() {
+		long total = this.dropped.sum();
+		if (total != this.reportedDropped) {
+			log.warn("Dropped {} WebClient exchange log records (queue capacity {})", total - this.reportedDropped,
+					this.queue.capacity());
+			this.reportedDropped = total;
+		}
+	}
+
+	@Override
+	public void destroy() throws InterruptedException {
+		this.running = false;
+		LockSupport.unpark(this.drainer);
+		this.drainer.join(1000);
+	}
+}
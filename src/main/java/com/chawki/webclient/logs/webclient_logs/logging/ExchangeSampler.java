@@ -0,0 +1,46 @@
+package com.chawki.webclient.logs.webclient_logs.logging;
+
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicLong;
+
+import com.chawki.webclient.logs.webclient_logs.config.LoggingSettings;
+
+/**
+ * Decides, once per exchange, whether it gets full logging. The rate limiter is a
+ * lock-free GCRA token bucket held in a single {@link AtomicLong} (the theoretical
+ * arrival time), allowing bursts of up to one second worth of tokens.
+ */
+final class ExchangeSampler {
+
+	private static final long NANOS_PER_SECOND = 1_000_000_000L;
+
+	private final AtomicLong theoreticalArrival = new AtomicLong(System.nanoTime());
+
+	boolean sample(LoggingSettings settings) {
+		return switch (settings.samplingMode()) {
+			case ALL, TAIL -> true;
+			case FIXED_RATE -> settings.sampleRate() > 0
+					&& ThreadLocalRandom.current().nextDouble() < settings.sampleRate();
+			case RATE_LIMITED -> tryAcquire(settings.rateLimitPerSecond());
+		};
+	}
+
+	private boolean tryAcquire(int permitsPerSecond) {
+		if (permitsPerSecond <= 0) {
+			return false;
+		}
+		long interval = NANOS_PER_SECOND / permitsPerSecond;
+		long burstTolerance = NANOS_PER_SECOND - interval;
+		long now = System.nanoTime();
+		while (true) {
+			long arrival = this.theoreticalArrival.get();
+			if (arrival - now > burstTolerance) {
+				return false;
+			}
+			long next = Math.max(arrival, now) + interval;
+			if (this.theoreticalArrival.compareAndSet(arrival, next)) {
+				return true;
+			}
+		}
+	}
+}
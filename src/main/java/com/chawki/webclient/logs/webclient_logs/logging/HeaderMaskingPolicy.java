@@ -0,0 +1,178 @@
+package com.chawki.webclient.logs.webclient_logs.logging;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Immutable, case-insensitive decision table telling whether a header must be masked
+ * in logs. Built once from configuration: exact header names plus substring patterns
+ * compiled into a small Aho-Corasick automaton. Each distinct header name is resolved
+ * once and then served from a bounded cache, so masking allocates nothing on the hot path.
+ */
+public final class HeaderMaskingPolicy {
+
+	public static final String MASKED = "***MASKED***";
+
+	public static final List<String> DEFAULT_MASKED_HEADERS = List.of("Authorization", "Cookie", "Set-Cookie");
+	public static final List<String> DEFAULT_MASKED_HEADER_PATTERNS = List.of("token", "key");
+
+	private static final HeaderMaskingPolicy DEFAULTS = compile(DEFAULT_MASKED_HEADERS, DEFAULT_MASKED_HEADER_PATTERNS);
+
+	private static final int ALPHABET_SIZE = 128;
+	private static final int MAX_CACHED_NAMES = 1024;
+
+	private final Set<String> exactNames;
+	private final List<String> patterns;
+	// transitions[state][c] of the pattern automaton; accepting[state] is true once any pattern matched
+	private final int[][] transitions;
+	private final boolean[] accepting;
+	private final Map<String, Boolean> decisions = new ConcurrentHashMap<>();
+
+	private HeaderMaskingPolicy(Set<String> exactNames, List<String> patterns) {
+		this.exactNames = exactNames;
+		this.patterns = patterns;
+
+		// Trie of the lower-cased patterns
+		List<int[]> trie = new ArrayList<>();
+		List<Boolean> terminal = new ArrayList<>();
+		trie.add(newState());
+		terminal.add(false);
+		for (String pattern : patterns) {
+			int state = 0;
+			for (int i = 0; i < pattern.length(); i++) {
+				int c = pattern.charAt(i);
+				if (trie.get(state)[c] < 0) {
+					trie.get(state)[c] = trie.size();
+					trie.add(newState());
+					terminal.add(false);
+				}
+				state = trie.get(state)[c];
+			}
+			terminal.set(state, true);
+		}
+
+		// Breadth-first failure links turn the trie into a complete DFA
+		int size = trie.size();
+		this.transitions = trie.toArray(new int[size][]);
+		this.accepting = new boolean[size];
+		int[] failure = new int[size];
+		ArrayDeque<Integer> queue = new ArrayDeque<>();
+		this.accepting[0] = terminal.get(0);
+		for (int c = 0; c < ALPHABET_SIZE; c++) {
+			int next = this.transitions[0][c];
+			if (next < 0) {
+				this.transitions[0][c] = 0;
+			}
+			else {
+				failure[next] = 0;
+				queue.add(next);
+			}
+		}
+		while (!queue.isEmpty()) {
+			int state = queue.poll();
+			this.accepting[state] = terminal.get(state) || this.accepting[failure[state]];
+			for (int c = 0; c < ALPHABET_SIZE; c++) {
+				int next = this.transitions[state][c];
+				if (next < 0) {
+					this.transitions[state][c] = this.transitions[failure[state]][c];
+				}
+				else {
+					failure[next] = this.transitions[failure[state]][c];
+					queue.add(next);
+				}
+			}
+		}
+	}
+
+	public static HeaderMaskingPolicy defaults() {
+		return DEFAULTS;
+	}
+
+	public static HeaderMaskingPolicy compile(Collection<String> exactNames, Collection<String> patterns) {
+		Set<String> names = new TreeSet<>(String.CASE_INSENSITIVE_ORDER);
+		if (exactNames != null) {
+			exactNames.stream().filter(name -> name != null && !name.isBlank()).map(String::trim).forEach(names::add);
+		}
+		List<String> lowerCasePatterns = new ArrayList<>();
+		if (patterns != null) {
+			for (String pattern : patterns) {
+				if (pattern == null || pattern.isBlank()) {
+					continue;
+				}
+				String normalized = pattern.trim().toLowerCase(Locale.ROOT);
+				if (normalized.chars().anyMatch(c -> c >= ALPHABET_SIZE)) {
+					throw new IllegalArgumentException("Header pattern must be ASCII: " + pattern);
+				}
+				lowerCasePatterns.add(normalized);
+			}
+		}
+		return new HeaderMaskingPolicy(Collections.unmodifiableSet(names), List.copyOf(lowerCasePatterns));
+	}
+
+	public boolean isSensitive(String headerName) {
+		Boolean decision = this.decisions.get(headerName);
+		if (decision == null) {
+			decision = evaluate(headerName);
+			if (this.decisions.size() < MAX_CACHED_NAMES) {
+				this.decisions.putIfAbsent(headerName, decision);
+			}
+		}
+		return decision;
+	}
+
+	public String mask(String headerName, String headerValue) {
+		return isSensitive(headerName) ? MASKED : headerValue;
+	}
+
+	public Set<String> getExactNames() {
+		return this.exactNames;
+	}
+
+	public List<String> getPatterns() {
+		return this.patterns;
+	}
+
+	private boolean evaluate(String headerName) {
+		if (this.exactNames.contains(headerName)) {
+			return true;
+		}
+		int state = 0;
+		for (int i = 0; i < headerName.length(); i++) {
+			char c = headerName.charAt(i);
+			if (c >= ALPHABET_SIZE) {
+				// Patterns are ASCII only: nothing can match across this character
+				state = 0;
+				continue;
+			}
+			state = this.transitions[state][toLowerCase(c)];
+			if (this.accepting[state]) {
+				return true;
+			}
+		}
+		return false;
+	}
+
+	private static int toLowerCase(char c) {
+		return c >= 'A' && c <= 'Z' ? c + ('a' - 'A') : c;
+	}
+
+	private static int[] newState() {
+		int[] state = new int[ALPHABET_SIZE];
+		Arrays.fill(state, -1);
+		return state;
+	}
+
+	@Override
+	public String toString() {
+		return "HeaderMaskingPolicy{exactNames=" + this.exactNames + ", patterns=" + this.patterns + '}';
+	}
+}
@@ -0,0 +1,69 @@
+package com.chawki.webclient.logs.webclient_logs.logging;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.function.Consumer;
+
+/**
+ * Bounded, lock-free ring buffer for many producers and a single consumer.
+ * Producers claim a slot with a CAS on the producer index and publish the element
+ * with a release store; the consumer treats an empty slot as "not yet published".
+ */
+final class MpscRingBuffer<E> {
+
+	private final AtomicReferenceArray<E> slots;
+	private final int mask;
+	private final int capacity;
+	private final AtomicLong producerIndex = new AtomicLong();
+	private final AtomicLong consumerIndex = new AtomicLong();
+
+	MpscRingBuffer(int requestedCapacity) {
+		int size = Integer.highestOneBit(Math.max(requestedCapacity, 2) - 1) << 1;
+		this.slots = new AtomicReferenceArray<>(size);
+		this.mask = size - 1;
+		this.capacity = size;
+	}
+
+	boolean offer(E element) {
+		long index;
+		do {
+			index = this.producerIndex.get();
+			if (index - this.consumerIndex.get() >= this.capacity) {
+				return false;
+			}
+		}
+		while (!this.producerIndex.compareAndSet(index, index + 1));
+		this.slots.lazySet((int) index & this.mask, element);
+		return true;
+	}
+
+	/**
+	 * Hand up to {@code limit} elements to the consumer. Must only be called from the
+	 * single consumer thread.
+	 */
+	int drain(Consumer<? super E> consumer, int limit) {
+		long index = this.consumerIndex.get();
+		int drained = 0;
+		while (drained < limit) {
+			int offset = (int) index & this.mask;
+			E element = this.slots.get(offset);
+			if (element == null) {
+				// Either empty or a producer has claimed the slot but not published yet
+				break;
+			}
+			this.slots.lazySet(offset, null);
+			this.consumerIndex.lazySet(++index);
+			drained++;
+			consumer.accept(element);
+		}
+		return drained;
+	}
+
+	int size() {
+		return (int) Math.max(this.producerIndex.get() - this.consumerIndex.get(), 0);
+	}
+
+	int capacity() {
+		return this.capacity;
+	}
+}
@@ -0,0 +1,16 @@
+package com.chawki.webclient.logs.webclient_logs.logging;
+
+/**
+ * What {@link ExchangeLogSink} does with a record when its queue cannot keep up.
+ */
+public enum OverflowPolicy {
+
+	/** Discard the record once the queue is full. */
+	DROP,
+
+	/** Once the queue is half full, keep only one record out of {@code overflowSampleRate}. */
+	SAMPLE,
+
+	/** Wait for free space. This stalls the calling thread, event loops included. */
+	BLOCK
+}
@@ -0,0 +1,19 @@
+package com.chawki.webclient.logs.webclient_logs.logging;
+
+import org.springframework.web.reactive.function.client.ClientRequest;
+
+/**
+ * Strategy producing the correlation id attached to each logged WebClient exchange.
+ * <p>
+ * The id is also written to the Reactor {@code Context} under {@link #CONTEXT_KEY}, but only
+ * for the exchange itself: the filters registered after the logging filter and the exchange
+ * function see it, the caller's {@code retrieve()...} chain does not. A caller that needs the
+ * id sets it itself in the {@code X-Request-ID} header, which the default generator reuses.
+ */
+@FunctionalInterface
+public interface RequestIdGenerator {
+
+	String CONTEXT_KEY = "webclient.requestId";
+
+	String generate(ClientRequest request);
+}
@@ -0,0 +1,183 @@
+package com.chawki.webclient.logs.webclient_logs.logging;
+
+import java.net.URI;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+
+import org.springframework.util.PatternMatchUtils;
+import org.springframework.web.reactive.function.client.ClientRequest;
+import org.springframework.web.reactive.function.client.WebClient;
+
+import com.chawki.webclient.logs.webclient_logs.config.RouteLoggingPolicy;
+
+/**
+ * Resolves the {@link RouteLoggingPolicy} of a request. Path patterns are compiled into
+ * one prefix trie per host, walked segment by segment, so resolution is proportional to
+ * the path length rather than to the number of routes. Results are cached per host and
+ * URI template (per path when the request was not built from a template).
+ * <p>Supported pattern segments: literals, {@code *} or {@code {name}} (one segment),
+ * globs such as {@code export-*}, and {@code **} (any number of segments). When several
+ * routes match, literals win over wildcards, and host-specific routes over any-host ones.
+ */
+public final class RouteMatcher {
+
+	// Set by DefaultWebClient when the URI was given as a template
+	static final String URI_TEMPLATE_ATTRIBUTE = WebClient.class.getName() + ".uriTemplate";
+
+	private static final String ANY_HOST = "*";
+	private static final int MAX_CACHED_KEYS = 1024;
+	private static final RouteMatcher EMPTY = new RouteMatcher(List.of());
+
+	private final Map<String, Node> tries = new HashMap<>();
+	private final Map<String, Optional<RouteLoggingPolicy>> cache = new ConcurrentHashMap<>();
+
+	private RouteMatcher(List<RouteLoggingPolicy> routes) {
+		for (RouteLoggingPolicy route : routes) {
+			String host = route.host() == null || route.host().isBlank() ? ANY_HOST
+					: route.host().trim().toLowerCase(Locale.ROOT);
+			Node node = this.tries.computeIfAbsent(host, h -> new Node());
+			for (String segment : segments(route.pathPattern())) {
+				node = node.child(segment);
+			}
+			if (node.policy == null) {
+				// First declared route wins on identical patterns
+				node.policy = route;
+			}
+		}
+	}
+
+	public static RouteMatcher compile(List<RouteLoggingPolicy> routes) {
+		return routes == null || routes.isEmpty() ? EMPTY : new RouteMatcher(routes);
+	}
+
+	public boolean isEmpty() {
+		return this.tries.isEmpty();
+	}
+
+	/**
+	 * @return the matching route, or {@code null} when the global settings apply
+	 */
+	public RouteLoggingPolicy resolve(ClientRequest request) {
+		if (this.tries.isEmpty()) {
+			return null;
+		}
+		URI url = request.url();
+		String host = url.getHost() != null ? url.getHost() : "";
+		Object template = request.attributes().get(URI_TEMPLATE_ATTRIBUTE);
+		String key = host + ' ' + (template != null ? template : url.getRawPath());
+		Optional<RouteLoggingPolicy> cached = this.cache.get(key);
+		if (cached == null) {
+			cached = Optional.ofNullable(match(host, url.getRawPath()));
+			if (this.cache.size() < MAX_CACHED_KEYS) {
+				this.cache.putIfAbsent(key, cached);
+			}
+		}
+		return cached.orElse(null);
+	}
+
+	RouteLoggingPolicy match(String host, String path) {
+		String normalizedPath = path == null ? "" : path;
+		Node hostTrie = this.tries.get(host.toLowerCase(Locale.ROOT));
+		RouteLoggingPolicy policy = hostTrie != null ? hostTrie.match(normalizedPath, skipSlashes(normalizedPath, 0))
+				: null;
+		if (policy == null) {
+			Node anyHost = this.tries.get(ANY_HOST);
+			policy = anyHost != null ? anyHost.match(normalizedPath, skipSlashes(normalizedPath, 0)) : null;
+		}
+		return policy;
+	}
+
+	private static List<String> segments(String pattern) {
+		List<String> segments = new ArrayList<>();
+		if (pattern == null) {
+			return segments;
+		}
+		for (String segment : pattern.split("/")) {
+			if (!segment.isEmpty()) {
+				segments.add(segment);
+			}
+		}
+		return segments;
+	}
+
+	private static int skipSlashes(String path, int index) {
+		while (index < path.length() && path.charAt(index) == '/') {
+			index++;
+		}
+		return index;
+	}
+
+	private static final class Node {
+
+		private final Map<String, Node> literals = new HashMap<>();
+		private final Map<String, Node> globs = new HashMap<>();
+		private Node anySegment;
+		private Node anySegments;
+		private RouteLoggingPolicy policy;
+
+		Node child(String segment) {
+			if (segment.equals("**")) {
+				return this.anySegments != null ? this.anySegments : (this.anySegments = new Node());
+			}
+			if (segment.equals("*") || (segment.startsWith("{") && segment.endsWith("}"))) {
+				return this.anySegment != null ? this.anySegment : (this.anySegment = new Node());
+			}
+			if (segment.indexOf('*') >= 0) {
+				return this.globs.computeIfAbsent(segment, s -> new Node());
+			}
+			return this.literals.computeIfAbsent(segment, s -> new Node());
+		}
+
+		RouteLoggingPolicy match(String path, int start) {
+			if (start >= path.length()) {
+				if (this.policy != null) {
+					return this.policy;
+				}
+				return this.anySegments != null ? this.anySegments.match(path, start) : null;
+			}
+			int end = path.indexOf('/', start);
+			if (end < 0) {
+				end = path.length();
+			}
+			int next = skipSlashes(path, end);
+			String segment = path.substring(start, end);
+
+			RouteLoggingPolicy policy = null;
+			Node literal = this.literals.get(segment);
+			if (literal != null) {
+				policy = literal.match(path, next);
+			}
+			if (policy == null && this.anySegment != null) {
+				policy = this.anySegment.match(path, next);
+			}
+			if (policy == null && !this.globs.isEmpty()) {
+				for (Map.Entry<String, Node> glob : this.globs.entrySet()) {
+					if (PatternMatchUtils.simpleMatch(glob.getKey(), segment)) {
+						policy = glob.getValue().match(path, next);
+						if (policy != null) {
+							break;
+						}
+					}
+				}
+			}
+			if (policy == null && this.anySegments != null) {
+				// "**" swallows zero or more segments: try each remaining boundary
+				int boundary = start;
+				while (policy == null && boundary <= path.length()) {
+					policy = this.anySegments.match(path, boundary);
+					if (boundary == path.length()) {
+						break;
+					}
+					int slash = path.indexOf('/', boundary);
+					boundary = slash < 0 ? path.length() : skipSlashes(path, slash);
+				}
+			}
+			return policy;
+		}
+	}
+}
@@ -0,0 +1,23 @@
+package com.chawki.webclient.logs.webclient_logs.logging;
+
+/**
+ * How {@link WebClientLoggingFilter} picks the exchanges that get full header/body logging.
+ */
+public enum SamplingMode {
+
+	/** Every exchange is logged in full. */
+	ALL,
+
+	/** A random {@code sampleRate} fraction of exchanges is logged in full. */
+	FIXED_RATE,
+
+	/** At most {@code rateLimitPerSecond} exchanges per second are logged in full. */
+	RATE_LIMITED,
+
+	/**
+	 * Every exchange is captured (bounded to {@code maxBodySize}), but the capture is only
+	 * emitted when the exchange fails, returns 5xx or exceeds {@code slowThresholdMs};
+	 * otherwise it is discarded without being formatted.
+	 */
+	TAIL
+}
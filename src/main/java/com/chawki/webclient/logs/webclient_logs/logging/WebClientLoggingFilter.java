@@ -1,14 +1,11 @@
 package com.chawki.webclient.logs.webclient_logs.logging;
 
-import org.slf4j.Logger;
-import org.slf4j.LoggerFactory;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.core.io.buffer.DataBuffer;
-import org.springframework.core.io.buffer.DataBufferUtils;
-import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpMethod;
-import org.springframework.http.HttpStatus;
-import org.springframework.http.HttpStatusCode;
 import org.springframework.http.client.reactive.ClientHttpRequestDecorator;
 import org.springframework.stereotype.Component;
 import org.springframework.web.reactive.function.client.ClientRequest;
@@ -16,110 +13,151 @@ import org.springframework.web.reactive.function.client.ClientResponse;
 import org.springframework.web.reactive.function.client.ExchangeFilterFunction;
 import org.springframework.web.reactive.function.client.ExchangeFunction;
 
+import com.chawki.webclient.logs.webclient_logs.config.LoggingSettings;
+import com.chawki.webclient.logs.webclient_logs.config.RouteLoggingPolicy;
 import com.chawki.webclient.logs.webclient_logs.config.WebClientLoggingConfiguration;
 
 import reactor.core.publisher.Flux;
 import reactor.core.publisher.Mono;
-import java.nio.charset.StandardCharsets;
-import java.time.LocalDateTime;
-import java.time.format.DateTimeFormatter;
-import java.util.UUID;
+import reactor.util.context.Context;
 
 @Component
 public class WebClientLoggingFilter implements ExchangeFilterFunction {
 
-	private static final Logger log = LoggerFactory.getLogger(WebClientLoggingFilter.class);
-	private static final DateTimeFormatter FORMATTER = DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm:ss.SSS");
-
 	private final WebClientLoggingConfiguration loggingConfig;
+	private final ExchangeLogSink logSink;
+	private final RequestIdGenerator requestIdGenerator;
+	private final ExchangeSampler sampler = new ExchangeSampler();
+	// Route overrides merged into the snapshot they were derived from; dropped when it is swapped
+	private volatile RouteSettings routeSettings = new RouteSettings(null);
 
 	@Autowired
-	public WebClientLoggingFilter(WebClientLoggingConfiguration loggingConfig) {
+	public WebClientLoggingFilter(WebClientLoggingConfiguration loggingConfig, ExchangeLogSink logSink,
+			RequestIdGenerator requestIdGenerator) {
 		this.loggingConfig = loggingConfig;
+		this.logSink = logSink;
+		this.requestIdGenerator = requestIdGenerator;
 	}
 
 	@Override
 	public Mono<ClientResponse> filter(ClientRequest request, ExchangeFunction next) {
-		if (!loggingConfig.isEnabled()) {
+		// One read per exchange: runtime updates swap the whole snapshot, so every
+		// decision below is taken against the same consistent settings
+		LoggingSettings global = loggingConfig.getSettings();
+		RouteLoggingPolicy route = global.routeMatcher().resolve(request);
+		LoggingSettings settings = route != null ? settingsFor(route, global) : global;
+		if (!settings.enabled()) {
 			return next.exchange(request);
 		}
+		// Sampling is decided up front: unsampled exchanges get no decorators and no
+		// record, at most a cheap check for errors and slow calls
+		if (!sampler.sample(settings)) {
+			return settings.alwaysLogErrorsAndSlow() ? logErrorsAndSlow(request, next, settings)
+					: next.exchange(request);
+		}
+
+		String requestId = requestIdGenerator.generate(request);
+		// Assembled once per exchange and handed to the sink when the exchange ends;
+		// nothing is formatted or written on the event loop
+		ExchangeLogRecord record = new ExchangeLogRecord(requestId, request.method(), request.url(),
+				settings.includeParameters(), settings.activeMaskingPolicy());
+		if (settings.samplingMode() == SamplingMode.TAIL) {
+			record.holdBackUnlessSlowOrFailed(settings.slowThresholdMs());
+		}
+
+		return next.exchange(logRequest(request, record, settings))
+				.doOnNext(response -> record.response(response.statusCode(),
+						settings.includeHeaders() ? response.headers().asHttpHeaders() : null))
+				.doOnError(error -> {
+					record.error(error);
+					logSink.publish(record);
+				})
+				.doOnCancel(() -> logSink.publish(record))
+				.map(response -> logResponseBody(response, record, settings))
+				// Visible upstream of this point only: inner filters and the connection, not the caller
+				.contextWrite(responseContext(requestId, record, settings));
+	}
 
-		String requestId = UUID.randomUUID().toString().substring(0, 8);
-		long startTime = System.currentTimeMillis();
+	LoggingSettings settingsFor(RouteLoggingPolicy route, LoggingSettings global) {
+		RouteSettings current = this.routeSettings;
+		if (current.global() != global) {
+			current = new RouteSettings(global);
+			this.routeSettings = current;
+		}
+		return current.merged().computeIfAbsent(route, key -> key.applyTo(global));
+	}
 
-		return next.exchange(logRequest(request, requestId))
-				.doOnNext(response -> logResponse(response, requestId, startTime))
-				.doOnError(error -> logError(request, error, requestId, startTime))
-				.map(response -> logResponseBody(response, requestId));
+	private Context responseContext(String requestId, ExchangeLogRecord record, LoggingSettings settings) {
+		if (!settings.includeBody()) {
+			return Context.of(RequestIdGenerator.CONTEXT_KEY, requestId);
+		}
+		// Filled by WireByteCounter on the connection, so the sizes can be compared once the body ends
+		WireByteCounter.WireBytes wireBytes = new WireByteCounter.WireBytes();
+		record.responseWireBytes(wireBytes);
+		return Context.of(RequestIdGenerator.CONTEXT_KEY, requestId, WireByteCounter.CONTEXT_KEY, wireBytes);
 	}
 
-	private ClientRequest logRequest(ClientRequest request, String requestId) {
-		log.info("=== REQUEST {} [{}] ===", requestId, FORMATTER.format(LocalDateTime.now()));
-		log.info("Method: {} {}", request.method(), request.url());
+	private Mono<ClientResponse> logErrorsAndSlow(ClientRequest request, ExchangeFunction next,
+			LoggingSettings settings) {
+		long startMillis = System.currentTimeMillis();
+		return next.exchange(request)
+				.doOnNext(response -> {
+					if (response.statusCode().is5xxServerError()
+							|| System.currentTimeMillis() - startMillis >= settings.slowThresholdMs()) {
+						ExchangeLogRecord record = summaryRecord(request, startMillis, settings);
+						record.response(response.statusCode(), null);
+						logSink.publish(record);
+					}
+				})
+				.doOnError(error -> {
+					ExchangeLogRecord record = summaryRecord(request, startMillis, settings);
+					record.error(error);
+					logSink.publish(record);
+				});
+	}
 
-		// Log URL parameters
-		logUrlParameters(request, requestId);
+	private ExchangeLogRecord summaryRecord(ClientRequest request, long startMillis, LoggingSettings settings) {
+		return new ExchangeLogRecord(requestIdGenerator.generate(request), startMillis, request.method(),
+				request.url(), settings.includeParameters(), settings.activeMaskingPolicy());
+	}
 
-		if (loggingConfig.isIncludeHeaders()) {
-			logHeaders("Request Headers", request.headers());
+	private ClientRequest logRequest(ClientRequest request, ExchangeLogRecord record, LoggingSettings settings) {
+		if (settings.includeHeaders()) {
+			record.requestHeaders(request.headers());
 		}
 
-		if (loggingConfig.isIncludeBody() && hasBody(request.method())) {
+		if (settings.includeBody() && hasBody(request.method())) {
+			int maxBodySize = settings.maxBodySize();
 			return ClientRequest.from(request).body((outputMessage, context) -> {
-				return request.body().insert(new LoggingClientHttpRequestDecorator(outputMessage, requestId), context);
+				return request.body().insert(new LoggingClientHttpRequestDecorator(outputMessage, record, maxBodySize),
+						context);
 			}).build();
 		}
 
 		return request;
 	}
 
-	private void logUrlParameters(ClientRequest request, String requestId) {
-		if (!loggingConfig.isIncludeParameters()) {
-			return;
-		}
-
-		String query = request.url().getQuery();
-		if (query != null && !query.isEmpty()) {
-			log.info("Request Parameters [{}]: {}", requestId, query);
-		}
-
-		// Also log path variables if any
-		String path = request.url().getPath();
-		if (path != null) {
-			log.info("Request Path [{}]: {}", requestId, path);
-		}
-	}
-
 	// Inner class to properly handle request body logging
-	private class LoggingClientHttpRequestDecorator extends ClientHttpRequestDecorator {
-		private final String requestId;
+	private static class LoggingClientHttpRequestDecorator extends ClientHttpRequestDecorator {
+		private final ExchangeLogRecord record;
+		private final int maxBodySize;
 
 		public LoggingClientHttpRequestDecorator(org.springframework.http.client.reactive.ClientHttpRequest delegate,
-				String requestId) {
+				ExchangeLogRecord record, int maxBodySize) {
 			super(delegate);
-			this.requestId = requestId;
+			this.record = record;
+			this.maxBodySize = maxBodySize;
 		}
 
 		@Override
 		public Mono<Void> writeWith(org.reactivestreams.Publisher<? extends DataBuffer> body) {
-			return DataBufferUtils.join(body).doOnNext(dataBuffer -> {
-				try {
-					// Create a copy of the buffer for logging
-					byte[] bytes = new byte[dataBuffer.readableByteCount()];
-					// Spring 6.0+ approach: Save current position, read bytes, then restore
-					// position
-					int originalReadPosition = dataBuffer.readPosition();
-					dataBuffer.read(bytes);
-					dataBuffer.readPosition(originalReadPosition);
-					String bodyContent = new String(bytes, StandardCharsets.UTF_8);
-					log.info("Request Body [{}]: {}", requestId, truncateBody(bodyContent));
-				} catch (Exception e) {
-					log.warn("Failed to log request body [{}]: {}", requestId, e.getMessage());
-				}
-			}).flatMap(dataBuffer -> {
-				// Write the original buffer to the actual request
-				return super.writeWith(Mono.just(dataBuffer));
-			});
+			// Stream buffers straight through, keeping only the first maxBodySize bytes
+			BodyCapture capture = new BodyCapture(maxBodySize);
+			record.requestBody(capture);
+			if (body instanceof Mono) {
+				return super.writeWith(Mono.<DataBuffer>from(body).doOnNext(capture::append));
+			}
+			return super.writeWith(Flux.<DataBuffer>from(body).doOnNext(capture::append));
 		}
 
 		@Override
@@ -129,78 +167,32 @@ public class WebClientLoggingFilter implements ExchangeFilterFunction {
 		}
 	}
 
-	private void logResponse(ClientResponse response, String requestId, long startTime) {
-		long duration = System.currentTimeMillis() - startTime;
-		log.info("=== RESPONSE {} [{}] ({} ms) ===", requestId, FORMATTER.format(LocalDateTime.now()), duration);
-		// Fix: Handle HttpStatusCode properly for Spring 6.0+
-		HttpStatusCode statusCode = response.statusCode();
-		String reasonPhrase = statusCode instanceof HttpStatus ? ((HttpStatus) statusCode).getReasonPhrase()
-				: "Unknown";
-
-		log.info("Status: {} {}", statusCode.value(), reasonPhrase);
-
-		if (loggingConfig.isIncludeHeaders()) {
-			logHeaders("Response Headers", response.headers().asHttpHeaders());
-		}
-	}
-
-	private ClientResponse logResponseBody(ClientResponse response, String requestId) {
-		if (!loggingConfig.isIncludeBody()) {
+	private ClientResponse logResponseBody(ClientResponse response, ExchangeLogRecord record,
+			LoggingSettings settings) {
+		if (!settings.includeBody()) {
+			logSink.publish(record);
 			return response;
 		}
 
-		return response.mutate().body(body -> body.map(dataBuffer -> {
-			byte[] bytes = new byte[dataBuffer.readableByteCount()];
-			dataBuffer.read(bytes);
-			String bodyContent = new String(bytes, StandardCharsets.UTF_8);
-			log.info("Response Body [{}]: {}", requestId, truncateBody(bodyContent));
-			return dataBuffer.factory().wrap(bytes);
-		})).build();
+		// Tap the pooled buffers without copying them: the original buffers are forwarded
+		// untouched and inspection stops once maxBodySize bytes have been captured.
+		// The record is published once the body terminates, so it carries both bodies.
+		// The capture belongs to the record, not to a subscription: releasing an already
+		// consumed body subscribes again and must not replace what was captured.
+		BodyCapture capture = new BodyCapture(settings.maxBodySize());
+		record.responseBody(capture);
+		return response.mutate().body(body -> body.doOnNext(capture::append)
+				.doFinally(signal -> logSink.publish(record))).build();
 	}
 
-	private void logError(ClientRequest request, Throwable error, String requestId, long startTime) {
-		long duration = System.currentTimeMillis() - startTime;
-		log.error("=== ERROR {} [{}] ({} ms) ===", requestId, FORMATTER.format(LocalDateTime.now()), duration);
-		log.error("Request: {} {}", request.method(), request.url());
-		log.error("Error Type: {}", error.getClass().getSimpleName());
-		log.error("Error Message: {}", error.getMessage());
-
-		if (log.isDebugEnabled()) {
-			log.debug("Full Stack Trace:", error);
-		}
-	}
-
-	private void logHeaders(String title, HttpHeaders headers) {
-		log.info("{}:", title);
-		headers.forEach((name, values) -> values
-				.forEach(value -> log.info("  {}: {}", name, maskSensitiveHeaders(name, value))));
+	private boolean hasBody(HttpMethod method) {
+		return method == HttpMethod.POST || method == HttpMethod.PUT || method == HttpMethod.PATCH;
 	}
 
-	private String maskSensitiveHeaders(String headerName, String headerValue) {
-		if (!loggingConfig.isMaskSensitiveData()) {
-			return headerValue;
-		}
+	private record RouteSettings(LoggingSettings global, Map<RouteLoggingPolicy, LoggingSettings> merged) {
 
-		if (headerName.equalsIgnoreCase("Authorization") || headerName.equalsIgnoreCase("Cookie")
-				|| headerName.equalsIgnoreCase("Set-Cookie") || headerName.toLowerCase().contains("token")
-				|| headerName.toLowerCase().contains("key")) {
-			return "***MASKED***";
+		RouteSettings(LoggingSettings global) {
+			this(global, new ConcurrentHashMap<>());
 		}
-		return headerValue;
-	}
-
-	private String truncateBody(String body) {
-		if (body == null) {
-			return "null";
-		}
-		int maxSize = loggingConfig.getMaxBodySize();
-		if (body.length() <= maxSize) {
-			return body;
-		}
-		return body.substring(0, maxSize) + "... (truncated)";
-	}
-
-	private boolean hasBody(HttpMethod method) {
-		return method == HttpMethod.POST || method == HttpMethod.PUT || method == HttpMethod.PATCH;
 	}
 }
@@ -0,0 +1,87 @@
+package com.chawki.webclient.logs.webclient_logs.logging;
+
+import io.netty.channel.Channel;
+import io.netty.channel.ChannelHandler.Sharable;
+import io.netty.channel.ChannelHandlerContext;
+import io.netty.channel.ChannelInboundHandlerAdapter;
+import io.netty.channel.ChannelPipeline;
+import io.netty.handler.codec.http.HttpContent;
+import io.netty.handler.codec.http.LastHttpContent;
+import io.netty.util.AttributeKey;
+import reactor.netty.Connection;
+import reactor.netty.NettyPipeline;
+import reactor.util.context.ContextView;
+
+/**
+ * Counts the response body bytes as they arrive on the wire, i.e. before Reactor Netty's
+ * decompressor, so the logging filter can report the compression ratio without buffering.
+ * The filter puts a {@link WireBytes} holder in the Reactor context; {@link #track} binds
+ * it to the connection once the response headers are in.
+ */
+@Sharable
+public final class WireByteCounter extends ChannelInboundHandlerAdapter {
+
+	public static final String CONTEXT_KEY = "webclient.wireBytes";
+
+	static final String NAME = "webclient.wireByteCounter";
+
+	private static final WireByteCounter INSTANCE = new WireByteCounter();
+	private static final AttributeKey<WireBytes> WIRE_BYTES = AttributeKey.valueOf(NAME);
+
+	private WireByteCounter() {
+	}
+
+	/**
+	 * Start counting for the exchange whose context carries a {@link WireBytes} holder.
+	 * Does nothing when the response is not being decompressed: wire and decoded sizes are equal.
+	 */
+	public static void track(Connection connection, ContextView context) {
+		WireBytes wireBytes = context.getOrDefault(CONTEXT_KEY, null);
+		if (wireBytes == null) {
+			return;
+		}
+		Channel channel = connection.channel();
+		ChannelPipeline pipeline = channel.pipeline();
+		if (pipeline.get(NettyPipeline.HttpDecompressor) == null) {
+			return;
+		}
+		// Stays installed on pooled connections; it only counts while a holder is bound
+		if (pipeline.get(NAME) == null) {
+			pipeline.addBefore(NettyPipeline.HttpDecompressor, NAME, INSTANCE);
+		}
+		channel.attr(WIRE_BYTES).set(wireBytes);
+	}
+
+	@Override
+	public void channelRead(ChannelHandlerContext ctx, Object msg) throws Exception {
+		if (msg instanceof HttpContent content) {
+			WireBytes wireBytes = ctx.channel().attr(WIRE_BYTES).get();
+			if (wireBytes != null) {
+				wireBytes.add(content.content().readableBytes());
+				if (msg instanceof LastHttpContent) {
+					ctx.channel().attr(WIRE_BYTES).set(null);
+				}
+			}
+		}
+		ctx.fireChannelRead(msg);
+	}
+
+	/**
+	 * Response body size as received, before decompression. Written on the event loop only.
+	 */
+	public static final class WireBytes {
+
+		private volatile long bytes = -1;
+
+		void add(int count) {
+			this.bytes = Math.max(this.bytes, 0) + count;
+		}
+
+		/**
+		 * @return the wire size, or {@code -1} when the body was not compressed or not measured
+		 */
+		long get() {
+			return this.bytes;
+		}
+	}
+}
@@ -2,78 +2,225 @@ package com.chawki.webclient.logs.webclient_logs.service;
 
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.DisposableBean;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpMethod;
 import org.springframework.http.HttpStatus;
 import org.springframework.stereotype.Service;
+import org.springframework.util.StringUtils;
 import org.springframework.web.reactive.function.client.WebClient;
 import org.springframework.web.reactive.function.client.WebClientResponseException;
 
+import com.chawki.webclient.logs.webclient_logs.client.MicroBatcher;
+import com.chawki.webclient.logs.webclient_logs.client.ReactiveCache;
+import com.chawki.webclient.logs.webclient_logs.client.RequestHedger;
+import com.chawki.webclient.logs.webclient_logs.client.RequestTimeoutFilter;
+import com.chawki.webclient.logs.webclient_logs.client.RetryPolicyEngine;
+import com.chawki.webclient.logs.webclient_logs.client.SingleFlight;
+import com.chawki.webclient.logs.webclient_logs.config.WebClientBatchProperties;
 import com.chawki.webclient.logs.webclient_logs.dto.User;
 import com.chawki.webclient.logs.webclient_logs.exception.UserNotFoundException;
 import com.chawki.webclient.logs.webclient_logs.exception.WebClientException;
 
 import reactor.core.publisher.Flux;
 import reactor.core.publisher.Mono;
-import reactor.util.retry.Retry;
 
 import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.function.Consumer;
+import java.util.function.Function;
+import java.util.stream.Collectors;
 
 @Service
-public class UserService {
+public class UserService implements DisposableBean {
 
     private static final Logger log = LoggerFactory.getLogger(UserService.class);
 
+    private static final String ALL_USERS = "all";
+
     private final WebClient webClient;
+    private final RetryPolicyEngine retryEngine;
+    private final RequestHedger requestHedger;
+    private final SingleFlight singleFlight;
+    private final ReactiveCache<Long, User> userByIdCache;
+    private final ReactiveCache<String, List<User>> userListCache;
+    private final WebClientBatchProperties batch;
+    // Null unless creations are aggregated
+    private final MicroBatcher<User, User> createBatcher;
 
     @Autowired
-    public UserService(WebClient webClient) {
+    public UserService(WebClient webClient, RetryPolicyEngine retryEngine, RequestHedger requestHedger,
+                       SingleFlight singleFlight, ReactiveCache<Long, User> userByIdCache,
+                       ReactiveCache<String, List<User>> userListCache, WebClientBatchProperties batch) {
         this.webClient = webClient;
+        this.retryEngine = retryEngine;
+        this.requestHedger = requestHedger;
+        this.singleFlight = singleFlight;
+        this.userByIdCache = userByIdCache;
+        this.userListCache = userListCache;
+        this.batch = batch;
+        this.createBatcher = batch.getCreate().isEnabled() ? newCreateBatcher(batch.getCreate()) : null;
+    }
+
+    private MicroBatcher<User, User> newCreateBatcher(WebClientBatchProperties.Create create) {
+        return new MicroBatcher<>("createUser", create.getMaxBatchSize(), create.getMaxWait(),
+                create.getConcurrency(), create.getMaxQueued(), StringUtils.hasText(create.getBulkPath()) ? this::postUsers : null,
+                this::postUser);
+    }
+
+    @Override
+    public void destroy() {
+        if (createBatcher != null) {
+            createBatcher.dispose();
+        }
     }
 
     public Flux<User> getAllUsers() {
         log.info("Fetching all users");
         
-        return webClient.get()
-                .uri("/users")
-                .retrieve()
-                .bodyToFlux(User.class)
-                .retryWhen(Retry.backoff(3, Duration.ofSeconds(1))
-                        .filter(this::isRetryableException))
-                .onErrorMap(this::mapException)
+        return userListCache.get(ALL_USERS, key -> singleFlight.execute(HttpMethod.GET, "/users", this::fetchAllUsers))
+                .flatMapIterable(users -> users)
                 .doOnNext(user -> log.debug("Retrieved user: {}", user))
                 .doOnComplete(() -> log.info("Successfully fetched all users"))
                 .doOnError(error -> log.error("Error fetching all users: {}", error.getMessage()));
     }
 
+    // Hedging and coalescing need a single signal, so the list is collected before it is emitted
+    private Mono<List<User>> fetchAllUsers() {
+        return requestHedger.hedge("GET /users", () -> webClient.get()
+                        .uri("/users")
+                        .attributes(bulkTimeouts())
+                        .retrieve()
+                        .bodyToFlux(User.class)
+                        .collectList())
+                .retryWhen(retryEngine.retryFor(HttpMethod.GET))
+                .onErrorMap(this::mapException);
+    }
+
     public Mono<User> getUserById(Long id) {
         log.info("Fetching user with id: {}", id);
         
-        return webClient.get()
-                .uri("/users/{id}", id)
-                .retrieve()
-                .onStatus(HttpStatus.NOT_FOUND::equals, 
-                    response -> Mono.error(new UserNotFoundException("User not found with id: " + id)))
-                .bodyToMono(User.class)
-                .retryWhen(Retry.backoff(3, Duration.ofSeconds(1))
-                        .filter(this::isRetryableException))
-                .onErrorMap(this::mapException)
+        // Cached; on a miss, concurrent lookups of the same id share one upstream call
+        return userByIdCache.get(id, key -> singleFlight.execute(HttpMethod.GET, "/users/" + key,
+                        () -> fetchUserById(key)))
                 .doOnNext(user -> log.info("Successfully fetched user: {}", user))
                 .doOnError(error -> log.error("Error fetching user with id {}: {}", id, error.getMessage()));
     }
 
+    private Mono<User> fetchUserById(Long id) {
+        return requestHedger.hedge("GET /users/{id}", () -> webClient.get()
+                        .uri("/users/{id}", id)
+                        .retrieve()
+                        .onStatus(HttpStatus.NOT_FOUND::equals,
+                            response -> Mono.error(new UserNotFoundException("User not found with id: " + id)))
+                        .bodyToMono(User.class))
+                .retryWhen(retryEngine.retryFor(HttpMethod.GET))
+                .onErrorMap(this::mapException);
+    }
+
+    /**
+     * Users for the given ids, duplicates and nulls removed, in the order the ids were first given.
+     * Ids without a user are skipped rather than failing the whole batch: callers that need to
+     * know which ones are missing compare the returned ids with the requested ones.
+     */
+    public Flux<User> getUsersByIds(Collection<Long> ids) {
+        Set<Long> uniqueIds = new LinkedHashSet<>(ids);
+        uniqueIds.remove(null);
+        log.info("Fetching {} users by id", uniqueIds.size());
+
+        Flux<User> users = StringUtils.hasText(batch.getBulkPath())
+                ? fetchUsersInBulk(List.copyOf(uniqueIds))
+                // flatMapSequential keeps the lookups concurrent but emits them in id order
+                : Flux.fromIterable(uniqueIds)
+                        .flatMapSequential(id -> getUserById(id)
+                                .onErrorResume(UserNotFoundException.class, ex -> Mono.empty()),
+                            Math.max(1, batch.getConcurrency()));
+        return users
+                .doOnComplete(() -> log.info("Successfully fetched users by id"))
+                .doOnError(error -> log.error("Error fetching users by id: {}", error.getMessage()));
+    }
+
+    private Flux<User> fetchUsersInBulk(List<Long> ids) {
+        int chunkSize = Math.max(1, batch.getMaxIdsPerBulkRequest());
+        List<List<Long>> chunks = new ArrayList<>();
+        for (int from = 0; from < ids.size(); from += chunkSize) {
+            chunks.add(ids.subList(from, Math.min(ids.size(), from + chunkSize)));
+        }
+        return Flux.fromIterable(chunks)
+                .flatMapSequential(this::fetchChunk, Math.max(1, batch.getConcurrency()));
+    }
+
+    // The upstream may answer in any order and omit unknown ids: re-emit in the requested order
+    private Flux<User> fetchChunk(List<Long> ids) {
+        String uri = batch.getBulkPath() + "?" + ids.stream()
+                .map(id -> batch.getBulkIdParameter() + "=" + id)
+                .collect(Collectors.joining("&"));
+        // Its own latency distribution: the same path without ids lists every user
+        return singleFlight.execute(HttpMethod.GET, uri, () -> requestHedger.hedge(
+                        "GET " + batch.getBulkPath() + "?" + batch.getBulkIdParameter() + "s",
+                        () -> webClient.get()
+                                .uri(uriBuilder -> uriBuilder
+                                        .path(batch.getBulkPath())
+                                        .queryParam(batch.getBulkIdParameter(), ids.toArray())
+                                        .build())
+                                .attributes(bulkTimeouts())
+                                .retrieve()
+                                .bodyToFlux(User.class)
+                                .collectList())
+                        .retryWhen(retryEngine.retryFor(HttpMethod.GET))
+                        .onErrorMap(this::mapException))
+                .flatMapIterable(users -> {
+                    Map<Long, User> byId = users.stream()
+                            .filter(user -> user.getId() != null)
+                            .collect(Collectors.toMap(User::getId, Function.identity(), (first, second) -> first));
+                    return ids.stream().map(byId::get).filter(Objects::nonNull).toList();
+                });
+    }
+
     public Mono<User> createUser(User user) {
         log.info("Creating new user: {}", user.getName());
         
+        return (createBatcher != null ? createBatcher.submit(user) : postUser(user))
+                .doOnNext(createdUser -> log.info("Successfully created user with id: {}", createdUser.getId()))
+                .doOnError(error -> log.error("Error creating user: {}", error.getMessage()))
+                .doFinally(signal -> userListCache.invalidate(ALL_USERS));
+    }
+
+    private Mono<User> postUser(User user) {
         return webClient.post()
                 .uri("/users")
                 .bodyValue(user)
                 .retrieve()
                 .bodyToMono(User.class)
-                .retryWhen(Retry.backoff(3, Duration.ofSeconds(1))
-                        .filter(this::isRetryableException))
-                .onErrorMap(this::mapException)
-                .doOnNext(createdUser -> log.info("Successfully created user with id: {}", createdUser.getId()))
-                .doOnError(error -> log.error("Error creating user: {}", error.getMessage()));
+                .retryWhen(retryEngine.retryFor(HttpMethod.POST))
+                .onErrorMap(this::mapException);
+    }
+
+    // Bulk calls are slower to answer and to stream their bodies than the client-wide defaults allow
+    private Consumer<Map<String, Object>> bulkTimeouts() {
+        Duration timeout = batch.getBulkResponseTimeout();
+        return RequestTimeoutFilter.responseTimeout(timeout)
+                .andThen(RequestTimeoutFilter.readTimeout(timeout))
+                .andThen(RequestTimeoutFilter.writeTimeout(timeout));
+    }
+
+    // One POST for a whole batch of queued creations, answered in the same order
+    private Mono<List<User>> postUsers(List<User> users) {
+        return webClient.post()
+                .uri(batch.getCreate().getBulkPath())
+                .attributes(bulkTimeouts())
+                .bodyValue(users)
+                .retrieve()
+                .bodyToFlux(User.class)
+                .collectList()
+                .retryWhen(retryEngine.retryFor(HttpMethod.POST))
+                .onErrorMap(this::mapException);
     }
 
     public Mono<User> updateUser(Long id, User user) {
@@ -86,11 +233,11 @@ public class UserService {
                 .onStatus(HttpStatus.NOT_FOUND::equals,
                     response -> Mono.error(new UserNotFoundException("User not found with id: " + id)))
                 .bodyToMono(User.class)
-                .retryWhen(Retry.backoff(3, Duration.ofSeconds(1))
-                        .filter(this::isRetryableException))
+                .retryWhen(retryEngine.retryFor(HttpMethod.PUT))
                 .onErrorMap(this::mapException)
                 .doOnNext(updatedUser -> log.info("Successfully updated user: {}", updatedUser))
-                .doOnError(error -> log.error("Error updating user with id {}: {}", id, error.getMessage()));
+                .doOnError(error -> log.error("Error updating user with id {}: {}", id, error.getMessage()))
+                .doFinally(signal -> invalidateUser(id));
     }
 
     public Mono<Void> deleteUser(Long id) {
@@ -102,11 +249,11 @@ public class UserService {
                 .onStatus(HttpStatus.NOT_FOUND::equals,
                     response -> Mono.error(new UserNotFoundException("User not found with id: " + id)))
                 .bodyToMono(Void.class)
-                .retryWhen(Retry.backoff(3, Duration.ofSeconds(1))
-                        .filter(this::isRetryableException))
+                .retryWhen(retryEngine.retryFor(HttpMethod.DELETE))
                 .onErrorMap(this::mapException)
                 .doOnSuccess(v -> log.info("Successfully deleted user with id: {}", id))
-                .doOnError(error -> log.error("Error deleting user with id {}: {}", id, error.getMessage()));
+                .doOnError(error -> log.error("Error deleting user with id {}: {}", id, error.getMessage()))
+                .doFinally(signal -> invalidateUser(id));
     }
 
     // New method to demonstrate URL parameters logging
@@ -121,8 +268,7 @@ public class UserService {
                         .build())
                 .retrieve()
                 .bodyToFlux(User.class)
-                .retryWhen(Retry.backoff(3, Duration.ofSeconds(1))
-                        .filter(this::isRetryableException))
+                .retryWhen(retryEngine.retryFor(HttpMethod.GET))
                 .onErrorMap(this::mapException)
                 .doOnNext(user -> log.debug("Retrieved user with params: {}", user))
                 .doOnComplete(() -> log.info("Successfully fetched users with parameters"))
@@ -147,21 +293,17 @@ public class UserService {
                 .bodyValue(requestBody)
                 .retrieve()
                 .bodyToMono(User.class)
-                .retryWhen(Retry.backoff(3, Duration.ofSeconds(1))
-                        .filter(this::isRetryableException))
+                .retryWhen(retryEngine.retryFor(HttpMethod.POST))
                 .onErrorMap(this::mapException)
                 .doOnNext(createdUser -> log.info("Successfully created user with complex body: {}", createdUser.getId()))
-                .doOnError(error -> log.error("Error creating user with complex body: {}", error.getMessage()));
+                .doOnError(error -> log.error("Error creating user with complex body: {}", error.getMessage()))
+                .doFinally(signal -> userListCache.invalidate(ALL_USERS));
     }
 
-    private boolean isRetryableException(Throwable throwable) {
-        if (throwable instanceof WebClientResponseException) {
-            WebClientResponseException ex = (WebClientResponseException) throwable;
-            return ex.getStatusCode().is5xxServerError() || 
-                   ex.getStatusCode() == HttpStatus.REQUEST_TIMEOUT;
-        }
-        return throwable instanceof java.net.ConnectException ||
-               throwable instanceof java.util.concurrent.TimeoutException;
+    // Also after a failed write: the upstream may have applied it
+    private void invalidateUser(Long id) {
+        userByIdCache.invalidate(id);
+        userListCache.invalidate(ALL_USERS);
     }
 
     private Throwable mapException(Throwable throwable) {
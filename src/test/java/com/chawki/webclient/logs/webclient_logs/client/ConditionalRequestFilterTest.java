@@ -0,0 +1,132 @@
+package com.chawki.webclient.logs.webclient_logs.client;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpHeaders;
+import org.springframework.web.reactive.function.client.WebClient;
+
+import reactor.core.publisher.Mono;
+import reactor.netty.DisposableServer;
+import reactor.netty.http.server.HttpServer;
+
+class ConditionalRequestFilterTest {
+
+    private static final String ETAG = "\"v1\"";
+    private static final String USERS = "[{\"id\":1,\"name\":\"Leanne Graham\"}]";
+
+    // Status sent by the stub for each request, in order
+    private final List<Integer> statuses = new CopyOnWriteArrayList<>();
+
+    private DisposableServer server;
+    private ValidatorStore store;
+    private WebClient webClient;
+
+    @BeforeEach
+    void setUp() {
+        server = HttpServer.create()
+                .port(0)
+                .route(routes -> routes
+                        .get("/users", (request, response) -> {
+                            if (ETAG.equals(request.requestHeaders().get(HttpHeaders.IF_NONE_MATCH))) {
+                                statuses.add(304);
+                                return response.status(304).header(HttpHeaders.ETAG, ETAG).send();
+                            }
+                            statuses.add(200);
+                            return response.header(HttpHeaders.ETAG, ETAG)
+                                    .header(HttpHeaders.CONTENT_TYPE, "application/json")
+                                    .sendString(Mono.just(USERS));
+                        })
+                        .get("/greeting", (request, response) -> {
+                            // Compares validators only: would answer 304 for the other language too
+                            if (ETAG.equals(request.requestHeaders().get(HttpHeaders.IF_NONE_MATCH))) {
+                                statuses.add(304);
+                                return response.status(304).header(HttpHeaders.ETAG, ETAG).send();
+                            }
+                            statuses.add(200);
+                            boolean french = "fr".equals(request.requestHeaders().get(HttpHeaders.ACCEPT_LANGUAGE));
+                            return response.header(HttpHeaders.ETAG, ETAG)
+                                    .header(HttpHeaders.VARY, HttpHeaders.ACCEPT_LANGUAGE)
+                                    .sendString(Mono.just(french ? "bonjour" : "hello"));
+                        })
+                        .get("/private", (request, response) -> {
+                            statuses.add(200);
+                            return response.header(HttpHeaders.ETAG, ETAG)
+                                    .header(HttpHeaders.CACHE_CONTROL, "private")
+                                    .sendString(Mono.just("secret"));
+                        }))
+                .bindNow();
+        store = new ValidatorStore(100, 1024 * 1024);
+        webClient = WebClient.builder()
+                .baseUrl("http://127.0.0.1:" + server.port())
+                .filter(new ConditionalRequestFilter(store, 1024))
+                .build();
+    }
+
+    @AfterEach
+    void tearDown() {
+        server.disposeNow();
+    }
+
+    @Test
+    void filter_ShouldServeTheStoredBodyOnNotModified() {
+        String first = get("/users");
+        String second = get("/users");
+
+        assertEquals(USERS, first);
+        assertEquals(USERS, second);
+        assertEquals(List.of(200, 304), statuses);
+    }
+
+    @Test
+    void filter_ShouldNotStorePrivateResponses() {
+        get("/private");
+        get("/private");
+
+        assertEquals(List.of(200, 200), statuses);
+        assertEquals(0, store.size());
+    }
+
+    @Test
+    void filter_ShouldNotServeAnotherRepresentationOfAVaryingResponse() {
+        assertEquals("hello", get("/greeting", "en"));
+        assertEquals("bonjour", get("/greeting", "fr"));
+        assertEquals("bonjour", get("/greeting", "fr"));
+
+        assertEquals(List.of(200, 200, 304), statuses);
+    }
+
+    @Test
+    void store_ShouldEvictLeastRecentlyUsedEntriesPastItsByteBound() {
+        ValidatorStore bounded = new ValidatorStore(100, 10);
+        bounded.put("/a", entry(4));
+        bounded.put("/b", entry(4));
+        bounded.get("/a");
+        bounded.put("/c", entry(4));
+        bounded.put("/d", entry(11));
+
+        assertNotNull(bounded.get("/a"));
+        assertNull(bounded.get("/b"));
+        assertNull(bounded.get("/d"));
+        assertEquals(8, bounded.getTotalBytes());
+    }
+
+    private static ValidatorStore.Entry entry(int size) {
+        return new ValidatorStore.Entry(ETAG, null, null, new byte[size], Map.of());
+    }
+
+    private String get(String path, String language) {
+        return webClient.get().uri(path).header(HttpHeaders.ACCEPT_LANGUAGE, language).retrieve()
+                .bodyToMono(String.class).block();
+    }
+
+    private String get(String path) {
+        return webClient.get().uri(path).retrieve().bodyToMono(String.class).block();
+    }
+}
@@ -0,0 +1,146 @@
+package com.chawki.webclient.logs.webclient_logs.client;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.UnknownHostException;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import com.chawki.webclient.logs.webclient_logs.config.WebClientDnsProperties;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import io.netty.bootstrap.Bootstrap;
+import io.netty.buffer.Unpooled;
+import io.netty.channel.Channel;
+import io.netty.channel.ChannelHandlerContext;
+import io.netty.channel.ChannelInitializer;
+import io.netty.channel.SimpleChannelInboundHandler;
+import io.netty.channel.nio.NioEventLoopGroup;
+import io.netty.channel.socket.DatagramChannel;
+import io.netty.channel.socket.nio.NioDatagramChannel;
+import io.netty.handler.codec.dns.DatagramDnsQuery;
+import io.netty.handler.codec.dns.DatagramDnsQueryDecoder;
+import io.netty.handler.codec.dns.DatagramDnsResponse;
+import io.netty.handler.codec.dns.DatagramDnsResponseEncoder;
+import io.netty.handler.codec.dns.DefaultDnsRawRecord;
+import io.netty.handler.codec.dns.DnsQuestion;
+import io.netty.handler.codec.dns.DnsRecordType;
+import io.netty.handler.codec.dns.DnsResponseCode;
+import io.netty.handler.codec.dns.DnsSection;
+import io.netty.resolver.AddressResolver;
+import io.netty.resolver.AddressResolverGroup;
+
+class DnsResolverFactoryTest {
+
+    private static final List<String> USERS_ADDRESSES = List.of("10.0.0.1", "10.0.0.2");
+
+    private final AtomicInteger queries = new AtomicInteger();
+    private final SimpleMeterRegistry registry = new SimpleMeterRegistry();
+
+    private NioEventLoopGroup group;
+    private Channel stubServer;
+    private AddressResolverGroup<InetSocketAddress> resolverGroup;
+
+    @BeforeEach
+    void startStubServer() throws InterruptedException {
+        group = new NioEventLoopGroup(1);
+        stubServer = new Bootstrap()
+                .group(group)
+                .channel(NioDatagramChannel.class)
+                .handler(new ChannelInitializer<DatagramChannel>() {
+                    @Override
+                    protected void initChannel(DatagramChannel channel) {
+                        channel.pipeline().addLast(new DatagramDnsQueryDecoder(), new DatagramDnsResponseEncoder(),
+                                new StubDnsHandler());
+                    }
+                })
+                .bind("127.0.0.1", 0)
+                .sync()
+                .channel();
+
+        WebClientDnsProperties dns = new WebClientDnsProperties();
+        InetSocketAddress stubAddress = (InetSocketAddress) stubServer.localAddress();
+        dns.setNameServers(List.of("127.0.0.1:" + stubAddress.getPort()));
+        resolverGroup = DnsResolverFactory.create(dns, NioDatagramChannel.class, registry);
+    }
+
+    @AfterEach
+    void stop() {
+        resolverGroup.close();
+        stubServer.close().syncUninterruptibly();
+        group.shutdownGracefully().syncUninterruptibly();
+    }
+
+    @Test
+    void resolve_ShouldServeRepeatedLookupsFromCache() {
+        resolve("users.test");
+        int queriesAfterFirstLookup = queries.get();
+
+        resolve("users.test");
+
+        assertEquals(queriesAfterFirstLookup, queries.get());
+        assertTrue(count("hit") >= 1);
+        assertTrue(count("miss") >= 1);
+    }
+
+    @Test
+    void resolve_ShouldCacheFailedLookups() {
+        assertThrows(UnknownHostException.class, () -> resolve("missing.test"));
+        // The failure is cached right after the promise fails: let the event loop finish that task
+        group.submit(() -> { }).syncUninterruptibly();
+        int queriesAfterFirstLookup = queries.get();
+
+        assertThrows(UnknownHostException.class, () -> resolve("missing.test"));
+
+        assertEquals(queriesAfterFirstLookup, queries.get());
+        assertTrue(count("negative-hit") >= 1);
+    }
+
+    @Test
+    void resolve_ShouldRotateOverAllARecords() {
+        Set<String> seen = new HashSet<>();
+        for (int i = 0; i < 50; i++) {
+            seen.add(resolve("users.test").getAddress().getHostAddress());
+        }
+
+        assertEquals(Set.copyOf(USERS_ADDRESSES), seen);
+    }
+
+    private InetSocketAddress resolve(String host) {
+        AddressResolver<InetSocketAddress> resolver = resolverGroup.getResolver(group.next());
+        return resolver.resolve(InetSocketAddress.createUnresolved(host, 80)).syncUninterruptibly().getNow();
+    }
+
+    private double count(String result) {
+        return registry.get("webclient.dns.cache").tag("result", result).counter().count();
+    }
+
+    private class StubDnsHandler extends SimpleChannelInboundHandler<DatagramDnsQuery> {
+
+        @Override
+        protected void channelRead0(ChannelHandlerContext ctx, DatagramDnsQuery query) throws UnknownHostException {
+            queries.incrementAndGet();
+            DnsQuestion question = query.recordAt(DnsSection.QUESTION);
+            DatagramDnsResponse response = new DatagramDnsResponse(query.recipient(), query.sender(), query.id());
+            response.addRecord(DnsSection.QUESTION, question);
+
+            if (!question.name().startsWith("users.test")) {
+                response.setCode(DnsResponseCode.NXDOMAIN);
+            } else if (question.type() == DnsRecordType.A) {
+                for (String address : USERS_ADDRESSES) {
+                    response.addRecord(DnsSection.ANSWER, new DefaultDnsRawRecord(question.name(), DnsRecordType.A,
+                            60, Unpooled.wrappedBuffer(InetAddress.getByName(address).getAddress())));
+                }
+            }
+            ctx.writeAndFlush(response);
+        }
+    }
+}
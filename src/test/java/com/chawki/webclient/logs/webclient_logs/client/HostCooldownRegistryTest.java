@@ -0,0 +1,52 @@
+package com.chawki.webclient.logs.webclient_logs.client;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.ZoneOffset;
+import java.util.Optional;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpHeaders;
+
+class HostCooldownRegistryTest {
+
+    private static final Instant NOW = Instant.parse("2026-01-15T10:00:00Z");
+
+    private final HostCooldownRegistry registry = new HostCooldownRegistry(Clock.fixed(NOW, ZoneOffset.UTC));
+
+    @Test
+    void retryAfter_ShouldParseDelaySeconds() {
+        assertEquals(Optional.of(Duration.ofSeconds(120)), registry.retryAfter(retryAfter("120")));
+    }
+
+    @Test
+    void retryAfter_ShouldParseHttpDate() {
+        assertEquals(Optional.of(Duration.ofSeconds(30)),
+                registry.retryAfter(retryAfter("Thu, 15 Jan 2026 10:00:30 GMT")));
+        assertEquals(Optional.of(Duration.ZERO), registry.retryAfter(retryAfter("Thu, 15 Jan 2026 09:00:00 GMT")));
+    }
+
+    @Test
+    void retryAfter_ShouldIgnoreMissingOrMalformedValues() {
+        assertEquals(Optional.empty(), registry.retryAfter(new HttpHeaders()));
+        assertEquals(Optional.empty(), registry.retryAfter(retryAfter("soon")));
+    }
+
+    @Test
+    void coolDown_ShouldOnlyExtendTheCooldown() {
+        registry.coolDown("users.test", Duration.ofSeconds(10));
+        registry.coolDown("users.test", Duration.ofSeconds(2));
+
+        assertEquals(Duration.ofSeconds(10), registry.remaining("users.test"));
+        assertEquals(Duration.ZERO, registry.remaining("other.test"));
+    }
+
+    private static HttpHeaders retryAfter(String value) {
+        HttpHeaders headers = new HttpHeaders();
+        headers.set(HttpHeaders.RETRY_AFTER, value);
+        return headers;
+    }
+}
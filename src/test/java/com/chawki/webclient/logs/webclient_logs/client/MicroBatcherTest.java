@@ -0,0 +1,108 @@
+package com.chawki.webclient.logs.webclient_logs.client;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.jupiter.api.Test;
+
+import com.chawki.webclient.logs.webclient_logs.exception.BatchQueueFullException;
+import com.chawki.webclient.logs.webclient_logs.exception.WebClientException;
+
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.core.publisher.Sinks;
+import reactor.test.StepVerifier;
+
+class MicroBatcherTest {
+
+    private final List<List<Integer>> bulkCalls = new CopyOnWriteArrayList<>();
+    private final AtomicInteger singleCalls = new AtomicInteger();
+
+    @Test
+    void submit_ShouldSendConcurrentItemsInBulkAndHandEachCallerItsResult() {
+        MicroBatcher<Integer, String> batcher = new MicroBatcher<>("test", 10, Duration.ofMillis(50), 2, 100,
+                this::bulk, this::single);
+
+        List<String> results = Flux.range(0, 25)
+                .flatMap(i -> batcher.submit(i).map(result -> i + "=" + result))
+                .collectList()
+                .block(Duration.ofSeconds(5));
+
+        assertEquals(25, results.size());
+        results.forEach(result -> {
+            String[] parts = result.split("=");
+            assertEquals("bulk-" + parts[0], parts[1]);
+        });
+        assertEquals(List.of(10, 10, 5), bulkCalls.stream().map(List::size).toList());
+        assertEquals(0, singleCalls.get());
+    }
+
+    @Test
+    void submit_ShouldFailEveryCallerOfAFailedBulkCall() {
+        MicroBatcher<Integer, String> batcher = new MicroBatcher<>("test", 3, Duration.ofSeconds(1), 1, 100,
+                items -> Mono.error(new IllegalStateException("upstream down")), this::single);
+
+        StepVerifier.create(Flux.range(0, 3)
+                        .flatMap(i -> batcher.submit(i).onErrorResume(ex -> Mono.just(ex.getMessage()))))
+                .expectNext("upstream down", "upstream down", "upstream down")
+                .verifyComplete();
+
+        // The batcher keeps serving after the failure
+        StepVerifier.create(batcher.submit(4))
+                .expectNext("single-4")
+                .verifyComplete();
+    }
+
+    @Test
+    void submit_ShouldSendItemsOneByOneWithoutBulkCall() {
+        MicroBatcher<Integer, String> batcher = new MicroBatcher<>("test", 10, Duration.ofMillis(50), 2, 100,
+                null, item -> item == 1 ? Mono.error(new IllegalStateException("rejected")) : single(item));
+
+        StepVerifier.create(batcher.submit(1)).expectErrorMessage("rejected").verify();
+        StepVerifier.create(batcher.submit(2)).expectNext("single-2").verifyComplete();
+        assertTrue(bulkCalls.isEmpty());
+    }
+
+    @Test
+    void submit_ShouldFailFastOnceTheQueueIsFull() {
+        Sinks.Empty<Void> upstream = Sinks.empty();
+        MicroBatcher<Integer, String> batcher = new MicroBatcher<>("test", 10, Duration.ofMillis(50), 1, 2,
+                null, item -> upstream.asMono().then(single(item)));
+
+        // One item in flight, two waiting
+        List<Mono<String>> accepted = List.of(batcher.submit(1).cache(), batcher.submit(2).cache(),
+                batcher.submit(3).cache());
+        accepted.forEach(Mono::subscribe);
+        assertEquals(2, batcher.getQueued());
+
+        StepVerifier.create(batcher.submit(4)).expectError(BatchQueueFullException.class).verify();
+
+        upstream.tryEmitEmpty();
+        assertEquals(List.of("single-1", "single-2", "single-3"),
+                Flux.concat(accepted).collectList().block(Duration.ofSeconds(5)));
+        assertEquals(0, batcher.getQueued());
+    }
+
+    @Test
+    void submit_ShouldRejectItemsOnceDisposed() {
+        MicroBatcher<Integer, String> batcher = new MicroBatcher<>("test", 10, Duration.ofMillis(50), 2, 100,
+                this::bulk, this::single);
+        batcher.dispose();
+
+        StepVerifier.create(batcher.submit(1)).expectError(WebClientException.class).verify();
+    }
+
+    private Mono<List<String>> bulk(List<Integer> items) {
+        bulkCalls.add(items);
+        return Mono.delay(Duration.ofMillis(10)).thenReturn(items.stream().map(item -> "bulk-" + item).toList());
+    }
+
+    private Mono<String> single(Integer item) {
+        singleCalls.incrementAndGet();
+        return Mono.just("single-" + item);
+    }
+}
@@ -0,0 +1,127 @@
+package com.chawki.webclient.logs.webclient_logs.client;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import reactor.core.publisher.Mono;
+import reactor.core.publisher.Sinks;
+import reactor.test.scheduler.VirtualTimeScheduler;
+
+class ReactiveCacheTest {
+
+    private final AtomicInteger loads = new AtomicInteger();
+    private final SimpleMeterRegistry registry = new SimpleMeterRegistry();
+
+    private VirtualTimeScheduler clock;
+    private ReactiveCache<Long, String> cache;
+
+    @BeforeEach
+    void setUp() {
+        clock = VirtualTimeScheduler.create();
+        cache = new ReactiveCache<>("users", Duration.ofSeconds(60), Duration.ofMinutes(5), 3,
+                value -> 1, clock, registry);
+    }
+
+    @AfterEach
+    void tearDown() {
+        clock.dispose();
+    }
+
+    @Test
+    void get_ShouldServeFreshEntriesWithoutLoading() {
+        assertEquals("user-1-v1", cache.get(1L, this::load).block());
+        clock.advanceTimeBy(Duration.ofSeconds(59));
+
+        assertEquals("user-1-v1", cache.get(1L, this::load).block());
+
+        assertEquals(1, loads.get());
+        assertEquals(1, count("hit"));
+        assertEquals(1, count("miss"));
+    }
+
+    @Test
+    void get_ShouldServeStaleEntriesWhileRefreshingInTheBackground() {
+        cache.get(1L, this::load).block();
+        clock.advanceTimeBy(Duration.ofSeconds(61));
+
+        assertEquals("user-1-v1", cache.get(1L, this::load).block());
+        assertEquals("user-1-v2", cache.get(1L, this::load).block());
+
+        assertEquals(2, loads.get());
+        assertEquals(1, count("stale"));
+    }
+
+    @Test
+    void get_ShouldLoadAgainOnceTheStalePeriodIsOver() {
+        cache.get(1L, this::load).block();
+        clock.advanceTimeBy(Duration.ofMinutes(7));
+
+        assertEquals("user-1-v2", cache.get(1L, this::load).block());
+        assertEquals(2, count("miss"));
+    }
+
+    @Test
+    void get_ShouldEvictTheOldestEntriesBeyondTheMaxWeight() {
+        for (long id = 1; id <= 5; id++) {
+            cache.get(id, this::load).block();
+        }
+
+        assertEquals(3, cache.size());
+        assertEquals(3, cache.weight());
+        assertEquals(2, registry.get("webclient.cache.evictions").counter().count());
+        cache.get(1L, this::load).block();
+        assertEquals(6, loads.get());
+    }
+
+    @Test
+    void invalidate_ShouldDropTheEntryAndLoadsStartedBeforeIt() {
+        cache.get(1L, this::load).block();
+        cache.invalidate(1L);
+        assertEquals(0, cache.size());
+
+        Sinks.One<String> inFlight = Sinks.one();
+        Mono<String> pending = cache.get(2L, id -> inFlight.asMono()).cache();
+        pending.subscribe();
+        cache.invalidate(2L);
+        inFlight.tryEmitValue("user-2-outdated");
+
+        assertEquals("user-2-outdated", pending.block());
+        assertEquals(0, cache.size());
+    }
+
+    @Test
+    void invalidate_ShouldOnlyDropLoadsOfTheInvalidatedKey() {
+        Sinks.One<String> inFlight = Sinks.one();
+        Mono<String> pending = cache.get(1L, id -> inFlight.asMono()).cache();
+        pending.subscribe();
+        cache.invalidate(2L);
+        inFlight.tryEmitValue("user-1-v1");
+
+        assertEquals("user-1-v1", pending.block());
+        assertEquals(1, cache.size());
+
+        Sinks.One<String> next = Sinks.one();
+        Mono<String> dropped = cache.get(3L, id -> next.asMono()).cache();
+        dropped.subscribe();
+        cache.invalidateAll();
+        next.tryEmitValue("user-3-outdated");
+
+        assertEquals("user-3-outdated", dropped.block());
+        assertEquals(0, cache.size());
+    }
+
+    private Mono<String> load(Long id) {
+        return Mono.fromSupplier(() -> "user-" + id + "-v" + loads.incrementAndGet());
+    }
+
+    private double count(String result) {
+        return registry.get("webclient.cache.requests").tag("result", result).counter().count();
+    }
+}
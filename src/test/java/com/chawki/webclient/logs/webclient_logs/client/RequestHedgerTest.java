@@ -0,0 +1,120 @@
+package com.chawki.webclient.logs.webclient_logs.client;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import com.chawki.webclient.logs.webclient_logs.config.WebClientHedgingProperties;
+
+import reactor.core.publisher.Mono;
+import reactor.test.StepVerifier;
+
+class RequestHedgerTest {
+
+    private final AtomicInteger attempts = new AtomicInteger();
+    private final AtomicBoolean firstCancelled = new AtomicBoolean();
+    private WebClientHedgingProperties properties;
+
+    @BeforeEach
+    void setUp() {
+        properties = new WebClientHedgingProperties();
+        properties.setEnabled(true);
+        properties.setDefaultDelay(Duration.ofMillis(50));
+    }
+
+    @Test
+    void hedge_ShouldSendASecondRequestAndCancelTheSlowOne() {
+        RequestHedger hedger = new RequestHedger(properties);
+
+        String result = hedger.hedge("GET /users/{id}", this::slowThenFastCall).block(Duration.ofSeconds(5));
+
+        assertEquals("attempt-2", result);
+        assertEquals(2, attempts.get());
+        assertTrue(firstCancelled.get());
+    }
+
+    @Test
+    void hedge_ShouldNotHedgeWithoutBudget() {
+        properties.getBudget().setRatio(0);
+        properties.getBudget().setMinPerSecond(0);
+        RequestHedger hedger = new RequestHedger(properties);
+
+        String result = hedger.hedge("GET /users/{id}", this::slowThenFastCall).block(Duration.ofSeconds(5));
+
+        assertEquals("attempt-1", result);
+        assertEquals(1, attempts.get());
+    }
+
+    @Test
+    void hedge_ShouldWaitForTheFirstAttemptWhenTheHedgeFailsFast() {
+        RequestHedger hedger = new RequestHedger(properties);
+
+        String result = hedger.hedge("GET /users/{id}", () -> attempts.incrementAndGet() == 1
+                        ? Mono.just("attempt-1").delayElement(Duration.ofMillis(300))
+                        : Mono.<String>error(new IllegalStateException("connection refused")))
+                .block(Duration.ofSeconds(5));
+
+        assertEquals("attempt-1", result);
+        assertEquals(2, attempts.get());
+    }
+
+    @Test
+    void hedge_ShouldSurfaceTheFirstAttemptErrorWhenBothFail() {
+        RequestHedger hedger = new RequestHedger(properties);
+
+        StepVerifier.create(hedger.hedge("GET /users/{id}", () -> attempts.incrementAndGet() == 1
+                        ? Mono.<String>error(new IllegalStateException("first"))
+                                .delaySubscription(Duration.ofMillis(300))
+                        : Mono.<String>error(new IllegalStateException("hedge"))))
+                .expectErrorMessage("first")
+                .verify(Duration.ofSeconds(5));
+    }
+
+    @Test
+    void hedge_ShouldSurfaceTheFirstAttemptErrorWithoutBudget() {
+        properties.getBudget().setRatio(0);
+        properties.getBudget().setMinPerSecond(0);
+        RequestHedger hedger = new RequestHedger(properties);
+
+        StepVerifier.create(hedger.hedge("GET /users/{id}", () -> Mono.<String>error(new IllegalStateException("first"))
+                        .delaySubscription(Duration.ofMillis(100))))
+                .expectErrorMessage("first")
+                .verify(Duration.ofSeconds(5));
+    }
+
+    @Test
+    void hedge_ShouldSendASingleRequestWhenDisabled() {
+        properties.setEnabled(false);
+        RequestHedger hedger = new RequestHedger(properties);
+
+        assertEquals("attempt-1", hedger.hedge("GET /users/{id}", this::slowThenFastCall).block());
+        assertEquals(1, attempts.get());
+    }
+
+    @Test
+    void percentile_ShouldUseRecentLatencies() {
+        LatencyTracker tracker = new LatencyTracker(100);
+        assertTrue(tracker.percentile(0.95, 10).isEmpty());
+
+        for (int i = 1; i <= 100; i++) {
+            tracker.record(i);
+        }
+
+        assertEquals(95, tracker.percentile(0.95, 10).getAsLong());
+        assertEquals(50, tracker.percentile(0.5, 10).getAsLong());
+    }
+
+    // The first attempt answers after 1s, any later one right away
+    private Mono<String> slowThenFastCall() {
+        int attempt = attempts.incrementAndGet();
+        Mono<String> response = Mono.just("attempt-" + attempt);
+        return attempt == 1
+                ? response.delayElement(Duration.ofSeconds(1)).doOnCancel(() -> firstCancelled.set(true))
+                : response;
+    }
+}
@@ -0,0 +1,100 @@
+package com.chawki.webclient.logs.webclient_logs.client;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.net.ConnectException;
+import java.net.URI;
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpStatus;
+import org.springframework.web.reactive.function.client.WebClientRequestException;
+import org.springframework.web.reactive.function.client.WebClientResponseException;
+
+import com.chawki.webclient.logs.webclient_logs.config.WebClientRetryProperties;
+
+import reactor.core.publisher.Mono;
+
+class RetryPolicyEngineTest {
+
+    private final AtomicInteger attempts = new AtomicInteger();
+    private WebClientRetryProperties properties;
+
+    @BeforeEach
+    void setUp() {
+        properties = new WebClientRetryProperties();
+        properties.getBackoff().setInitialInterval(Duration.ofMillis(1));
+        properties.getBackoff().setMaxInterval(Duration.ofMillis(5));
+    }
+
+    @Test
+    void retryFor_ShouldRetryRetryableStatusUntilAttemptsAreExhausted() {
+        RetryPolicyEngine engine = new RetryPolicyEngine(properties, new HostCooldownRegistry());
+
+        Throwable error = call(engine, HttpMethod.GET, responseError(HttpStatus.SERVICE_UNAVAILABLE));
+
+        assertEquals(3, attempts.get());
+        assertInstanceOf(WebClientResponseException.class, error);
+    }
+
+    @Test
+    void retryFor_ShouldNotRetryNonIdempotentMethodsOrClientErrors() {
+        RetryPolicyEngine engine = new RetryPolicyEngine(properties, new HostCooldownRegistry());
+
+        call(engine, HttpMethod.POST, responseError(HttpStatus.SERVICE_UNAVAILABLE));
+        call(engine, HttpMethod.GET, responseError(HttpStatus.BAD_REQUEST));
+
+        assertEquals(2, attempts.get());
+    }
+
+    @Test
+    void retryFor_ShouldMatchConfiguredExceptionsThroughTheirCauses() {
+        RetryPolicyEngine engine = new RetryPolicyEngine(properties, new HostCooldownRegistry());
+        WebClientRequestException wrapped = new WebClientRequestException(new ConnectException("refused"),
+                HttpMethod.GET, URI.create("http://users.test"), new HttpHeaders());
+
+        call(engine, HttpMethod.GET, wrapped);
+
+        assertEquals(3, attempts.get());
+    }
+
+    @Test
+    void retryFor_ShouldStopRetryingOnceTheBudgetIsSpent() {
+        properties.getBudget().setRatio(0);
+        properties.getBudget().setMinRetriesPerSecond(1);
+        RetryPolicyEngine engine = new RetryPolicyEngine(properties, new HostCooldownRegistry());
+
+        // The bucket starts with a single token: one retry in total, then every call fails at once
+        call(engine, HttpMethod.GET, responseError(HttpStatus.BAD_GATEWAY));
+        call(engine, HttpMethod.GET, responseError(HttpStatus.BAD_GATEWAY));
+
+        assertEquals(3, attempts.get());
+    }
+
+    @Test
+    void retryFor_ShouldNotWaitForRetryAfterBeyondTheMaxCooldown() {
+        RetryPolicyEngine engine = new RetryPolicyEngine(properties, new HostCooldownRegistry());
+        HttpHeaders headers = new HttpHeaders();
+        headers.set(HttpHeaders.RETRY_AFTER, "3600");
+
+        call(engine, HttpMethod.GET, WebClientResponseException.create(429, "Too Many Requests", headers, null, null));
+
+        assertEquals(1, attempts.get());
+    }
+
+    private Throwable call(RetryPolicyEngine engine, HttpMethod method, Throwable failure) {
+        Mono<String> call = Mono.defer(() -> {
+            attempts.incrementAndGet();
+            return Mono.<String>error(failure);
+        });
+        return assertThrows(RuntimeException.class, () -> call.retryWhen(engine.retryFor(method)).block());
+    }
+
+    private static WebClientResponseException responseError(HttpStatus status) {
+        return WebClientResponseException.create(status.value(), status.getReasonPhrase(), null, null, null);
+    }
+}
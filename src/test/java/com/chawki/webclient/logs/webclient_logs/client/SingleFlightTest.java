@@ -0,0 +1,63 @@
+package com.chawki.webclient.logs.webclient_logs.client;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpMethod;
+
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.core.publisher.Sinks;
+
+class SingleFlightTest {
+
+    private final SingleFlight singleFlight = new SingleFlight();
+    private final AtomicInteger calls = new AtomicInteger();
+
+    @Test
+    void execute_ShouldShareOneCallBetweenConcurrentCallers() {
+        Sinks.One<String> upstream = Sinks.one();
+        Mono<List<String>> callers = Flux.range(0, 100)
+                .flatMap(i -> singleFlight.execute(HttpMethod.GET, "/users/1", () -> call(upstream.asMono())))
+                .collectList()
+                .cache();
+        callers.subscribe();
+        assertEquals(1, singleFlight.getInFlightCount());
+
+        upstream.tryEmitValue("user-1");
+
+        assertEquals(100, callers.block().size());
+        assertEquals(1, calls.get());
+        assertEquals(0, singleFlight.getInFlightCount());
+    }
+
+    @Test
+    void execute_ShouldCallAgainOnceTheFlightIsOver() {
+        singleFlight.execute(HttpMethod.GET, "/users/1", () -> call(Mono.just("user-1"))).block();
+        singleFlight.execute(HttpMethod.GET, "/users/1", () -> call(Mono.just("user-1"))).block();
+        singleFlight.execute(HttpMethod.GET, "/users/2", () -> call(Mono.just("user-2"))).block();
+
+        assertEquals(3, calls.get());
+    }
+
+    @Test
+    void execute_ShouldShareErrorsAndRejectNonIdempotentMethods() {
+        Mono<String> failing = singleFlight.execute(HttpMethod.GET, "/users/1",
+                () -> call(Mono.error(new IllegalStateException("upstream down"))));
+
+        assertThrows(IllegalStateException.class, failing::block);
+        assertEquals(0, singleFlight.getInFlightCount());
+        assertThrows(IllegalArgumentException.class,
+                () -> singleFlight.execute(HttpMethod.POST, "/users", () -> Mono.just("created")));
+    }
+
+    private Mono<String> call(Mono<String> response) {
+        return Mono.defer(() -> {
+            calls.incrementAndGet();
+            return response;
+        });
+    }
+}
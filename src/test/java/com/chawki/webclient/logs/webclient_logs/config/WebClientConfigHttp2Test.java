@@ -0,0 +1,90 @@
+package com.chawki.webclient.logs.webclient_logs.config;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.web.reactive.function.client.WebClient;
+
+import com.chawki.webclient.logs.webclient_logs.logging.BoundedWiretapHandler;
+import com.chawki.webclient.logs.webclient_logs.logging.DefaultRequestIdGenerator;
+import com.chawki.webclient.logs.webclient_logs.logging.ExchangeLogSink;
+import com.chawki.webclient.logs.webclient_logs.logging.WebClientLoggingFilter;
+
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.netty.DisposableServer;
+import reactor.netty.http.HttpProtocol;
+import reactor.netty.http.server.HttpServer;
+import reactor.netty.resources.ConnectionProvider;
+
+class WebClientConfigHttp2Test {
+
+    private final Set<Integer> clientPorts = ConcurrentHashMap.newKeySet();
+
+    private DisposableServer server;
+    private ConnectionProvider connectionProvider;
+    private ExchangeLogSink logSink;
+
+    @BeforeEach
+    void startServer() {
+        server = HttpServer.create()
+                .host("127.0.0.1")
+                .port(0)
+                .protocol(HttpProtocol.H2C)
+                .route(routes -> routes.get("/users", (request, response) -> {
+                    // Streams of one HTTP/2 connection all report the parent connection's address
+                    clientPorts.add(request.remoteAddress().getPort());
+                    return response.sendString(Mono.just("[]").delayElement(Duration.ofMillis(100)));
+                }))
+                .bindNow();
+    }
+
+    @AfterEach
+    void stopServer() throws InterruptedException {
+        if (logSink != null) {
+            logSink.destroy();
+        }
+        if (connectionProvider != null) {
+            connectionProvider.dispose();
+        }
+        server.disposeNow();
+    }
+
+    @Test
+    void h2c_ShouldMultiplexConcurrentRequestsOnOneConnection() {
+        WebClientConfig config = new WebClientConfig();
+        ReflectionTestUtils.setField(config, "baseUrl", "http://127.0.0.1:" + server.port());
+        ReflectionTestUtils.setField(config, "connectionTimeout", 1000);
+        ReflectionTestUtils.setField(config, "responseTimeout", 5000);
+        ReflectionTestUtils.setField(config, "readTimeout", 5000);
+        ReflectionTestUtils.setField(config, "writeTimeout", 5000);
+        ReflectionTestUtils.setField(config, "maxInMemorySize", 1024);
+        ReflectionTestUtils.setField(config, "protocols", new HttpProtocol[] {HttpProtocol.H2C});
+
+        connectionProvider = config.webClientConnectionProvider(new WebClientPoolProperties());
+        WebClientLoggingConfiguration loggingConfig = new WebClientLoggingConfiguration();
+        logSink = new ExchangeLogSink(loggingConfig);
+        WebClientLoggingFilter loggingFilter = new WebClientLoggingFilter(loggingConfig, logSink,
+                new DefaultRequestIdGenerator());
+        WebClient webClient = config.webClient(loggingFilter, new BoundedWiretapHandler(loggingConfig),
+                connectionProvider, new WebClientTransportProperties(), new WebClientCompressionProperties(),
+                Optional.empty(), Optional.empty(), Optional.empty(), Optional.empty(), Optional.empty());
+
+        List<String> bodies = Flux.range(0, 10)
+                .flatMap(i -> webClient.get().uri("/users").retrieve().bodyToMono(String.class))
+                .collectList()
+                .block(Duration.ofSeconds(10));
+
+        assertEquals(10, bodies.size());
+        assertEquals(1, clientPorts.size(), "all streams should share one connection");
+    }
+}
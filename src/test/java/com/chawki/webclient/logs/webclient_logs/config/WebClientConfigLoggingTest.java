@@ -0,0 +1,161 @@
+package com.chawki.webclient.logs.webclient_logs.config;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Optional;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.slf4j.LoggerFactory;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.web.reactive.function.client.WebClient;
+
+import com.chawki.webclient.logs.webclient_logs.logging.BoundedWiretapHandler;
+import com.chawki.webclient.logs.webclient_logs.logging.DefaultRequestIdGenerator;
+import com.chawki.webclient.logs.webclient_logs.logging.ExchangeLogSink;
+import com.chawki.webclient.logs.webclient_logs.logging.WebClientLoggingFilter;
+
+import ch.qos.logback.classic.Logger;
+import ch.qos.logback.classic.spi.ILoggingEvent;
+import ch.qos.logback.core.read.ListAppender;
+import reactor.core.publisher.Mono;
+import reactor.netty.DisposableServer;
+import reactor.netty.http.HttpProtocol;
+import reactor.netty.http.server.HttpServer;
+import reactor.netty.resources.ConnectionProvider;
+
+/**
+ * Goes through the WebClient as configured, so the filter chain and the sink are the real ones.
+ */
+class WebClientConfigLoggingTest {
+
+    private final Logger exchangeLog = (Logger) LoggerFactory.getLogger(WebClientLoggingFilter.class);
+    private final ListAppender<ILoggingEvent> appender = new ListAppender<>();
+    private final WebClientLoggingConfiguration loggingConfig = new WebClientLoggingConfiguration();
+
+    private DisposableServer server;
+    private ConnectionProvider connectionProvider;
+    private ExchangeLogSink logSink;
+
+    @BeforeEach
+    void setUp() {
+        server = HttpServer.create()
+                .host("127.0.0.1")
+                .port(0)
+                .compress(1)
+                .route(routes -> routes
+                        .get("/users", (request, response) -> response
+                                .header("Content-Type", "application/json")
+                                .sendString(Mono.just("[" + "{\"id\":1,\"name\":\"Leanne Graham\"},".repeat(50)
+                                        + "{\"id\":2}]")))
+                        .post("/users", (request, response) -> response
+                                .status(201)
+                                .header("Content-Type", "application/json")
+                                .header("X-Received-Encoding",
+                                        String.valueOf(request.requestHeaders().get("Content-Encoding")))
+                                .send(request.receive().retain())))
+                .bindNow();
+        appender.start();
+        exchangeLog.addAppender(appender);
+        logSink = new ExchangeLogSink(loggingConfig);
+    }
+
+    @AfterEach
+    void tearDown() throws InterruptedException {
+        exchangeLog.detachAppender(appender);
+        logSink.destroy();
+        if (connectionProvider != null) {
+            connectionProvider.dispose();
+        }
+        server.disposeNow();
+    }
+
+    @Test
+    void webClient_ShouldLogExchangesThroughTheSink() {
+        WebClient webClient = webClient(new WebClientCompressionProperties());
+
+        webClient.post().uri("/users").bodyValue("{\"name\":\"Ervin Howell\"}").retrieve()
+                .bodyToMono(String.class).block(Duration.ofSeconds(5));
+
+        String logged = awaitLogged("Method: POST");
+        assertTrue(logged.contains("Status: 201"), logged);
+        assertTrue(logged.contains("Request Body (23 bytes): {\"name\":\"Ervin Howell\"}"), logged);
+        assertTrue(logged.contains("Response Body (23 bytes)"), logged);
+    }
+
+    @Test
+    void webClient_ShouldLogWireAndDecodedSizeOfCompressedResponses() {
+        WebClientCompressionProperties compression = new WebClientCompressionProperties();
+        compression.setResponseEnabled(true);
+        WebClient webClient = webClient(compression);
+
+        String body = webClient.get().uri("/users").retrieve().bodyToMono(String.class)
+                .block(Duration.ofSeconds(5));
+
+        String logged = awaitLogged("Method: GET");
+        assertTrue(logged.contains("Response Body (" + body.length() + " bytes, "), logged);
+        assertTrue(logged.contains(" on the wire, ratio "), logged);
+    }
+
+    @Test
+    void webClient_ShouldLogRequestBodiesBeforeCompressingThem() {
+        WebClientCompressionProperties compression = new WebClientCompressionProperties();
+        compression.setRequestEnabled(true);
+        compression.setRequestMinSize(10);
+        WebClient webClient = webClient(compression);
+
+        String receivedEncoding = webClient.post().uri("/users").bodyValue("{\"name\":\"Ervin Howell\"}")
+                .retrieve()
+                .toBodilessEntity().block(Duration.ofSeconds(5)).getHeaders().getFirst("X-Received-Encoding");
+
+        assertEquals("gzip", receivedEncoding);
+        String logged = awaitLogged("Method: POST");
+        assertTrue(logged.contains("Request Body (23 bytes): {\"name\":\"Ervin Howell\"}"), logged);
+    }
+
+    private WebClient webClient(WebClientCompressionProperties compression) {
+        WebClientConfig config = new WebClientConfig();
+        ReflectionTestUtils.setField(config, "baseUrl", "http://127.0.0.1:" + server.port());
+        ReflectionTestUtils.setField(config, "connectionTimeout", 1000);
+        ReflectionTestUtils.setField(config, "responseTimeout", 5000);
+        ReflectionTestUtils.setField(config, "readTimeout", 5000);
+        ReflectionTestUtils.setField(config, "writeTimeout", 5000);
+        ReflectionTestUtils.setField(config, "maxInMemorySize", 1024 * 1024);
+        ReflectionTestUtils.setField(config, "protocols", new HttpProtocol[] {HttpProtocol.HTTP11});
+
+        connectionProvider = config.webClientConnectionProvider(new WebClientPoolProperties());
+        WebClientLoggingFilter loggingFilter = config.webClientLoggingFilter(loggingConfig, logSink,
+                new DefaultRequestIdGenerator());
+        return config.webClient(loggingFilter, new BoundedWiretapHandler(loggingConfig), connectionProvider,
+                new WebClientTransportProperties(), compression,
+                Optional.empty(), Optional.empty(), Optional.empty(), Optional.empty(), Optional.empty());
+    }
+
+    // Records are written by the sink's drainer thread
+    private String awaitLogged(String marker) {
+        long deadline = System.nanoTime() + Duration.ofSeconds(5).toNanos();
+        while (System.nanoTime() < deadline) {
+            List<ILoggingEvent> events;
+            // The appender adds events while holding its own lock
+            synchronized (appender) {
+                events = List.copyOf(appender.list);
+            }
+            for (ILoggingEvent event : events) {
+                if (event.getFormattedMessage().contains(marker)) {
+                    return event.getFormattedMessage();
+                }
+            }
+            try {
+                Thread.sleep(10);
+            }
+            catch (InterruptedException ex) {
+                Thread.currentThread().interrupt();
+                break;
+            }
+        }
+        return fail("No exchange logged with " + marker + " in " + appender.list);
+    }
+}
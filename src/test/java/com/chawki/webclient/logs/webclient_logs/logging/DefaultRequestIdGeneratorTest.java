@@ -0,0 +1,50 @@
+package com.chawki.webclient.logs.webclient_logs.logging;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.net.URI;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpMethod;
+import org.springframework.web.reactive.function.client.ClientRequest;
+
+class DefaultRequestIdGeneratorTest {
+
+    private final ClientRequest request = ClientRequest.create(HttpMethod.GET, URI.create("http://localhost/users"))
+            .build();
+
+    @Test
+    void generate_ShouldNotRepeatIdsAcrossMoreThan1024Threads() throws InterruptedException {
+        DefaultRequestIdGenerator generator = new DefaultRequestIdGenerator(42);
+        Set<String> ids = ConcurrentHashMap.newKeySet();
+        List<Thread> threads = new ArrayList<>();
+
+        // Short-lived threads, as a recycled elastic pool would give
+        for (int i = 0; i < 2000; i++) {
+            threads.add(Thread.ofPlatform().start(() -> {
+                for (int j = 0; j < 5; j++) {
+                    ids.add(generator.generate(request));
+                }
+            }));
+        }
+        for (Thread thread : threads) {
+            thread.join();
+        }
+
+        assertEquals(2000 * 5, ids.size());
+    }
+
+    @Test
+    void generate_ShouldPrefixIdsWithTheNode() {
+        String first = new DefaultRequestIdGenerator(1).generate(request);
+        String second = new DefaultRequestIdGenerator(2).generate(request);
+
+        assertEquals(18, first.length());
+        assertNotEquals(first.substring(0, 8), second.substring(0, 8));
+        assertEquals(first.substring(8), second.substring(8));
+    }
+}
@@ -0,0 +1,56 @@
+package com.chawki.webclient.logs.webclient_logs.logging;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+
+class HeaderMaskingPolicyTest {
+
+    @Test
+    void defaults_ShouldMaskExactNamesIgnoringCase() {
+        HeaderMaskingPolicy policy = HeaderMaskingPolicy.defaults();
+
+        assertTrue(policy.isSensitive("Authorization"));
+        assertTrue(policy.isSensitive("authorization"));
+        assertTrue(policy.isSensitive("SET-COOKIE"));
+        assertFalse(policy.isSensitive("Content-Type"));
+    }
+
+    @Test
+    void defaults_ShouldMaskNamesContainingPatterns() {
+        HeaderMaskingPolicy policy = HeaderMaskingPolicy.defaults();
+
+        assertTrue(policy.isSensitive("X-Api-Key"));
+        assertTrue(policy.isSensitive("X-Auth-TOKEN"));
+        assertFalse(policy.isSensitive("Keep-Alive"));
+        assertFalse(policy.isSensitive("Accept"));
+    }
+
+    @Test
+    void compile_ShouldMatchOverlappingPatterns() {
+        HeaderMaskingPolicy policy = HeaderMaskingPolicy.compile(List.of(), List.of("secret", "cret-id", "ab"));
+
+        assertTrue(policy.isSensitive("X-Client-Cret-Id"));
+        assertTrue(policy.isSensitive("x-secret"));
+        assertTrue(policy.isSensitive("X-SecreT-Id"));
+        assertTrue(policy.isSensitive("Grab"));
+        assertFalse(policy.isSensitive("X-Secre"));
+        assertFalse(policy.isSensitive("Authorization"));
+    }
+
+    @Test
+    void mask_ShouldReturnValueForNonSensitiveHeaders() {
+        HeaderMaskingPolicy policy = HeaderMaskingPolicy.compile(List.of("X-Internal"), List.of());
+
+        assertEquals(HeaderMaskingPolicy.MASKED, policy.mask("x-internal", "value"));
+        assertEquals("value", policy.mask("X-Internal-Id", "value"));
+    }
+
+    @Test
+    void compile_ShouldRejectNonAsciiPatterns() {
+        assertThrows(IllegalArgumentException.class,
+                () -> HeaderMaskingPolicy.compile(List.of(), List.of("clé")));
+    }
+}
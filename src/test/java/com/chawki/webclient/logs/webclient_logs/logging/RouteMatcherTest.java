@@ -0,0 +1,55 @@
+package com.chawki.webclient.logs.webclient_logs.logging;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+
+import com.chawki.webclient.logs.webclient_logs.config.RouteLoggingPolicy;
+
+class RouteMatcherTest {
+
+    @Test
+    void match_ShouldPreferLiteralOverWildcardSegments() {
+        RouteMatcher matcher = RouteMatcher.compile(List.of(
+                route("by-id", null, "/users/{id}"),
+                route("me", null, "/users/me")));
+
+        assertEquals("me", matcher.match("api.example.com", "/users/me").id());
+        assertEquals("by-id", matcher.match("api.example.com", "/users/42").id());
+        assertNull(matcher.match("api.example.com", "/users/42/posts"));
+    }
+
+    @Test
+    void match_ShouldSupportGlobsAndDoubleWildcard() {
+        RouteMatcher matcher = RouteMatcher.compile(List.of(
+                route("export", null, "/reports/export-*"),
+                route("actuator", null, "/actuator/**")));
+
+        assertEquals("export", matcher.match("h", "/reports/export-csv").id());
+        assertNull(matcher.match("h", "/reports/summary"));
+        assertEquals("actuator", matcher.match("h", "/actuator").id());
+        assertEquals("actuator", matcher.match("h", "/actuator/health/liveness").id());
+    }
+
+    @Test
+    void match_ShouldPreferHostSpecificRoutes() {
+        RouteMatcher matcher = RouteMatcher.compile(List.of(
+                route("any", null, "/posts/**"),
+                route("internal", "Internal.Example.com", "/posts/**")));
+
+        assertEquals("internal", matcher.match("internal.example.com", "/posts/1").id());
+        assertEquals("any", matcher.match("jsonplaceholder.typicode.com", "/posts/1").id());
+    }
+
+    @Test
+    void compile_ShouldReturnEmptyMatcherWithoutRoutes() {
+        assertTrue(RouteMatcher.compile(List.of()).isEmpty());
+        assertTrue(RouteMatcher.compile(null).isEmpty());
+    }
+
+    private static RouteLoggingPolicy route(String id, String host, String pathPattern) {
+        return new RouteLoggingPolicy(id, host, pathPattern, null, null, null, null, null, null);
+    }
+}
@@ -0,0 +1,34 @@
+package com.chawki.webclient.logs.webclient_logs.logging;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import org.junit.jupiter.api.Test;
+
+import com.chawki.webclient.logs.webclient_logs.config.LoggingSettings;
+import com.chawki.webclient.logs.webclient_logs.config.RouteLoggingPolicy;
+import com.chawki.webclient.logs.webclient_logs.config.WebClientLoggingConfiguration;
+
+class WebClientLoggingFilterTest {
+
+    private final WebClientLoggingConfiguration loggingConfig = new WebClientLoggingConfiguration();
+    private final WebClientLoggingFilter filter = new WebClientLoggingFilter(loggingConfig, null,
+            new DefaultRequestIdGenerator());
+    private final RouteLoggingPolicy route = new RouteLoggingPolicy("posts", null, "/posts/**", null, false,
+            null, null, null, null);
+
+    @Test
+    void settingsFor_ShouldReuseMergedSettingsUntilTheSnapshotIsSwapped() {
+        LoggingSettings first = filter.settingsFor(route, loggingConfig.getSettings());
+
+        assertSame(first, filter.settingsFor(route, loggingConfig.getSettings()));
+        assertFalse(first.includeBody());
+        assertEquals(1000, first.maxBodySize());
+
+        loggingConfig.update(builder -> builder.maxBodySize(200));
+        LoggingSettings updated = filter.settingsFor(route, loggingConfig.getSettings());
+
+        assertNotSame(first, updated);
+        assertEquals(200, updated.maxBodySize());
+        assertFalse(updated.includeBody());
+    }
+}